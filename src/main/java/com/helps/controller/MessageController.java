@@ -2,11 +2,17 @@ package com.helps.controller;
 
 import com.helps.domain.model.Message;
 import com.helps.domain.service.MessageService;
+import com.helps.domain.service.WebSocketService;
+import com.helps.dto.ChatAckDto;
 import com.helps.dto.ChatMessageDto;
+import com.helps.dto.CursorPageDto;
 import com.helps.dto.MessageDto;
 import com.helps.dto.MessageResponseDto;
+import com.helps.infra.security.StompAuthChannelInterceptor;
+import com.helps.infra.websocket.TicketPresenceTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,8 +23,12 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -28,7 +38,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MessageController {
 
+    private static final String ACK_HEADER = "x-ack";
+    private static final String ACK_COMMIT = "commit";
+    private static final String ACK_ENQUEUE = "enqueue";
+
     private final MessageService messageService;
+    private final WebSocketService webSocketService;
+    private final TicketPresenceTracker presenceTracker;
+
+    @Value("${chat.message.commit-timeout-ms:5000}")
+    private long commitTimeoutMs;
 
     @GetMapping
     public ResponseEntity<List<MessageResponseDto>> listMessages(@PathVariable Long ticketId) {
@@ -45,8 +64,20 @@ public class MessageController {
         }
     }
 
+    @GetMapping("/history")
+    public ResponseEntity<CursorPageDto<MessageResponseDto>> getMessageHistory(
+            @PathVariable Long ticketId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(messageService.getMessageHistory(ticketId, beforeId, afterId, limit));
+    }
+
     @PostMapping
-    public ResponseEntity<?> sendMessage(@PathVariable Long ticketId, @RequestBody Map<String, Object> requestBody) {
+    public ResponseEntity<?> sendMessage(
+            @PathVariable Long ticketId,
+            @RequestParam(value = "ack", defaultValue = ACK_COMMIT) String ack,
+            @RequestBody Map<String, Object> requestBody) {
         try {
             String content = extractContent(requestBody);
 
@@ -58,12 +89,27 @@ public class MessageController {
                         ));
             }
 
-            MessageDto messageDTO = new MessageDto(content);
-            Message message = messageService.sendMessage(ticketId, messageDTO);
+            MessageService.ChatSubmission submission = messageService.sendChatMessage(ticketId, content);
 
-            // Retorna DTO ao invés da entidade
-            MessageResponseDto responseDto = MessageResponseDto.fromEntity(message);
-            return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
+            // ack=enqueue responde assim que a mensagem entra na fila de gravação
+            if (ACK_ENQUEUE.equalsIgnoreCase(ack)) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(submission.accepted());
+            }
+
+            try {
+                MessageResponseDto responseDto = submission.persisted().get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+                return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
+            } catch (TimeoutException e) {
+                // Continua na fila; o cliente recebe a sequência, com o ID ainda nulo
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(submission.accepted());
+            } catch (ExecutionException e) {
+                log.error("Error persisting message to ticket {}: {}", ticketId, e.getCause().getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of(
+                                "error", "Internal Server Error",
+                                "message", "Error persisting message"
+                        ));
+            }
 
         } catch (Exception e) {
             log.error("Error sending message to ticket {}: {}", ticketId, e.getMessage());
@@ -125,21 +171,34 @@ public class MessageController {
             @Payload ChatMessageDto chatMessage,
             SimpMessageHeaderAccessor headerAccessor) {
 
+        // Remetente vem do principal autenticado no CONNECT, nunca do payload
+        if (headerAccessor.getUser() == null) {
+            log.warn("WebSocket message rejected: unauthenticated session={} ticket={}",
+                    headerAccessor.getSessionId(), ticketId);
+            return;
+        }
+
         try {
-            String sessionId = headerAccessor.getSessionId();
-            headerAccessor.getSessionAttributes().put("ticketId", ticketId);
-            headerAccessor.getSessionAttributes().put("userId", chatMessage.senderId());
-            headerAccessor.getSessionAttributes().put("username", chatMessage.senderName());
+            MessageService.ChatSubmission submission = messageService.sendChatMessage(ticketId, chatMessage.content());
+            MessageResponseDto sent = submission.accepted();
 
-            MessageDto messageDto = new MessageDto(chatMessage.content());
-            messageService.sendMessage(ticketId, messageDto);
+            // Com "x-ack: commit" o remetente recebe a confirmação da gravação em /user/queue/chat-ack
+            if (ACK_COMMIT.equalsIgnoreCase(headerAccessor.getFirstNativeHeader(ACK_HEADER))) {
+                String username = headerAccessor.getUser().getName();
+                submission.persisted().whenComplete((persisted, error) -> webSocketService.sendChatAck(username,
+                        new ChatAckDto(ticketId, sent.getSequence(), persisted != null ? persisted.getId() : null, error == null)));
+            }
 
-            log.debug("WebSocket message processed: user={} ticket={} session={}",
-                    chatMessage.senderName(), ticketId, sessionId);
+            headerAccessor.getSessionAttributes().put("ticketId", ticketId);
+            headerAccessor.getSessionAttributes().put("userId", sent.getSenderId());
+            headerAccessor.getSessionAttributes().put("username", headerAccessor.getUser().getName());
+
+            log.debug("WebSocket message processed: user={} ticket={} session={} sequence={}",
+                    headerAccessor.getUser().getName(), ticketId, headerAccessor.getSessionId(), sent.getSequence());
 
         } catch (Exception e) {
             log.error("Error processing WebSocket message: user={} ticket={} error={}",
-                    chatMessage.senderName(), ticketId, e.getMessage());
+                    headerAccessor.getUser().getName(), ticketId, e.getMessage());
         }
     }
 
@@ -149,17 +208,26 @@ public class MessageController {
             @Payload ChatMessageDto chatMessage,
             SimpMessageHeaderAccessor headerAccessor) {
 
+        // Identidade vem só do principal do CONNECT; o payload não é confiável
+        Principal user = headerAccessor.getUser();
+        if (user == null) {
+            log.warn("Chat join rejected: unauthenticated session={} ticket={}",
+                    headerAccessor.getSessionId(), ticketId);
+            return;
+        }
+
         try {
-            headerAccessor.getSessionAttributes().put("username", chatMessage.senderName());
+            String sessionId = headerAccessor.getSessionId();
+            Long userId = StompAuthChannelInterceptor.resolveUserId(user);
+
             headerAccessor.getSessionAttributes().put("ticketId", ticketId);
-            headerAccessor.getSessionAttributes().put("userId", chatMessage.senderId());
+            presenceTracker.identify(sessionId, user.getName(), userId);
 
-            log.debug("User joined chat: user={} ticket={} session={}",
-                    chatMessage.senderName(), ticketId, headerAccessor.getSessionId());
+            log.debug("User joined chat: user={} ticket={} session={}", user.getName(), ticketId, sessionId);
 
         } catch (Exception e) {
             log.error("Error adding user to chat: user={} ticket={} error={}",
-                    chatMessage.senderName(), ticketId, e.getMessage());
+                    user.getName(), ticketId, e.getMessage());
         }
     }
 
@@ -185,7 +253,9 @@ public class MessageController {
                         message.getSender().getName() :
                         message.getSender().getUsername(),
                 message.getContent(),
-                message.getSentDate()
+                message.getSentDate(),
+                null,
+                message.getId()
         );
     }
 }
\ No newline at end of file
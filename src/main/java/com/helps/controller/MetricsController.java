@@ -1,7 +1,13 @@
 package com.helps.controller;
 
+import com.helps.domain.service.ActivityLogWriter;
+import com.helps.domain.service.ChatMessageWriter;
+import com.helps.domain.service.OutboxService;
 import com.helps.domain.service.TicketService;
+import com.helps.dto.ActivityLogWriterMetricsDto;
 import com.helps.dto.ApiResponse;
+import com.helps.dto.ChatMessageWriterMetricsDto;
+import com.helps.dto.OutboxMetricsDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +21,15 @@ public class MetricsController {
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ActivityLogWriter activityLogWriter;
+
+    @Autowired
+    private ChatMessageWriter chatMessageWriter;
+
     @GetMapping("/dashboard")
     public ResponseEntity<ApiResponse<Object>> getDashboardMetrics() {
         try {
@@ -24,4 +39,19 @@ public class MetricsController {
             return ResponseEntity.ok(ApiResponse.success(java.util.Collections.emptyList()));
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/outbox")
+    public ResponseEntity<ApiResponse<OutboxMetricsDto>> getOutboxMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(outboxService.getMetrics()));
+    }
+
+    @GetMapping("/activity-log")
+    public ResponseEntity<ApiResponse<ActivityLogWriterMetricsDto>> getActivityLogWriterMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(activityLogWriter.getMetrics()));
+    }
+
+    @GetMapping("/chat-writer")
+    public ResponseEntity<ApiResponse<ChatMessageWriterMetricsDto>> getChatMessageWriterMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(chatMessageWriter.getMetrics()));
+    }
+}
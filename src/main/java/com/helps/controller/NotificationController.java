@@ -1,11 +1,12 @@
 package com.helps.controller;
 
-import com.helps.domain.model.User;
 import com.helps.domain.repository.UserRepository;
 import com.helps.domain.service.NotificationService;
 import com.helps.domain.service.UserContextService;
+import com.helps.dto.CursorPageDto;
 import com.helps.dto.NotificationDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -33,8 +34,8 @@ public class NotificationController {
     @GetMapping("/unread")
     public ResponseEntity<List<NotificationDto>> getUnreadNotifications() {
         try {
-            User user = userContextService.getCurrentUser();
-            List<NotificationDto> notifications = notificationService.getUnreadNotifications(user.getId());
+            Long userId = userContextService.getCurrentUserId();
+            List<NotificationDto> notifications = notificationService.getUnreadNotifications(userId);
             return ResponseEntity.ok(notifications);
         } catch (Exception e) {
             System.err.println("Error fetching unread notifications: " + e.getMessage());
@@ -46,8 +47,8 @@ public class NotificationController {
     @GetMapping
     public ResponseEntity<List<NotificationDto>> getAllNotifications() {
         try {
-            User user = userContextService.getCurrentUser();
-            List<NotificationDto> notifications = notificationService.getUnreadNotifications(user.getId());
+            Long userId = userContextService.getCurrentUserId();
+            List<NotificationDto> notifications = notificationService.getUnreadNotifications(userId);
             return ResponseEntity.ok(notifications);
         } catch (Exception e) {
             System.err.println("Error fetching all notifications: " + e.getMessage());
@@ -56,6 +57,16 @@ public class NotificationController {
         }
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDto<NotificationDto>> getNotificationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean unreadOnly) {
+        CursorPageDto<NotificationDto> page = notificationService.getNotificationsWithCursor(
+                userContextService.getCurrentUserId(), cursor, size, unreadOnly);
+        return ResponseEntity.ok(page);
+    }
+
     @PatchMapping("/{id}/read")
     public ResponseEntity<NotificationDto> markAsRead(@PathVariable Long id) {
         try {
@@ -71,8 +82,7 @@ public class NotificationController {
     @PatchMapping("/mark-all-read")
     public ResponseEntity<Void> markAllAsRead() {
         try {
-            User user = userContextService.getCurrentUser();
-            notificationService.markAllAsRead(user.getId());
+            notificationService.markAllAsRead(userContextService.getCurrentUserId());
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             System.err.println("Error marking all notifications as read: " + e.getMessage());
@@ -81,15 +91,22 @@ public class NotificationController {
         }
     }
 
+    @PatchMapping("/mark-read")
+    public ResponseEntity<Map<String, Integer>> markReadUpTo(
+            @RequestParam(required = false) Long upToId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime upTo) {
+        int updated = notificationService.markReadUpTo(userContextService.getCurrentUserId(), upToId, upTo);
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
     @GetMapping("/count")
     public ResponseEntity<Map<String, Integer>> getNotificationCount() {
         try {
-            User user = userContextService.getCurrentUser();
-            List<NotificationDto> unreadNotifications = notificationService.getUnreadNotifications(user.getId());
+            int unread = notificationService.getUnreadCount(userContextService.getCurrentUserId());
 
             Map<String, Integer> result = Map.of(
-                    "total", unreadNotifications.size(),
-                    "unread", unreadNotifications.size()
+                    "total", unread,
+                    "unread", unread
             );
 
             return ResponseEntity.ok(result);
@@ -103,7 +120,7 @@ public class NotificationController {
     @PostMapping("/test")
     public ResponseEntity<NotificationDto> createTestNotification(@RequestBody Map<String, Object> requestBody) {
         try {
-            User user = userContextService.getCurrentUser();
+            Long userId = userContextService.getCurrentUserId();
 
             String message = (String) requestBody.getOrDefault("message", "Test notification");
             String type = (String) requestBody.getOrDefault("type", "TEST");
@@ -111,7 +128,7 @@ public class NotificationController {
                     ((Number) requestBody.get("ticketId")).longValue() : null;
 
             NotificationDto notification = notificationService.createNotificationForUser(
-                    user.getId(),
+                    userId,
                     message,
                     type,
                     ticketId
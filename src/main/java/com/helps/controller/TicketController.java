@@ -1,8 +1,13 @@
 package com.helps.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.helps.domain.model.Ticket;
 import com.helps.domain.service.TicketService;
 import com.helps.dto.*;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -17,6 +22,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,9 +32,15 @@ import java.util.stream.Collectors;
 @Validated
 public class TicketController {
 
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final int STREAM_FLUSH_INTERVAL = 200;
+
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     public ResponseEntity<ApiResponse<List<TicketListDto>>> listTickets() {
         List<Ticket> tickets = ticketService.listTickets();
@@ -37,18 +50,55 @@ public class TicketController {
         return ResponseEntity.ok(ApiResponse.success(ticketDtos));
     }
 
+    /**
+     * Exporta os tickets como NDJSON, escrevendo direto na resposta linha a linha.
+     */
+    @GetMapping(value = "/stream", produces = NDJSON_MEDIA_TYPE)
+    public void streamTickets(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding("UTF-8");
+
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // Sem o espaço padrão entre valores raiz: cada linha começa direto no objeto
+            generator.setRootValueSeparator(null);
+            int[] written = {0};
+
+            ticketService.streamTickets(ticket -> {
+                try {
+                    writer.writeValue(generator, convertToListDto(ticket));
+                    generator.writeRaw('\n');
+
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
     @GetMapping("/paginated")
     public ResponseEntity<ApiResponse<Page<TicketResponseDto>>> listTicketsPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "openingDate") String sortBy,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String search) {
 
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
+        // Com termo de busca, o padrão passa a ser ordenar por relevância
+        boolean hasSearch = search != null && !search.isBlank();
+        if (sortBy == null || (!hasSearch && TicketService.RELEVANCE_SORT.equals(sortBy))) {
+            sortBy = hasSearch ? TicketService.RELEVANCE_SORT : "openingDate";
+        }
+
+        Pageable pageable = TicketService.RELEVANCE_SORT.equals(sortBy)
+                ? PageRequest.of(page, size)
+                : PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
 
         TicketFilterDto filters = new TicketFilterDto(status, category, search, sortBy, sortDirection);
         Page<TicketResponseDto> tickets = ticketService.findAllWithPagination(pageable, filters);
@@ -56,6 +106,20 @@ public class TicketController {
         return ResponseEntity.ok(ApiResponse.success(tickets));
     }
 
+    @GetMapping(value = "/paginated", params = "cursor")
+    public ResponseEntity<ApiResponse<CursorPageDto<TicketResponseDto>>> listTicketsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String search) {
+
+        TicketFilterDto filters = new TicketFilterDto(status, category, search, "openingDate", "desc");
+        CursorPageDto<TicketResponseDto> tickets = ticketService.findAllWithCursor(cursor, size, filters);
+
+        return ResponseEntity.ok(ApiResponse.success(tickets));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<TicketResponseDto>> getTicketById(@PathVariable Long id) {
         return ticketService.findById(id)
@@ -0,0 +1,12 @@
+package com.helps.domain.event;
+
+/**
+ * Publicado na criação de um ticket; carrega apenas dados já resolvidos
+ * para que o processamento assíncrono não dependa da sessão JPA da requisição.
+ */
+public record TicketCreatedEvent(
+        Long ticketId,
+        String title,
+        Long creatorId,
+        String creatorName
+) {}
@@ -0,0 +1,98 @@
+package com.helps.domain.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contagem pré-agregada de atividades por hora, tipo e nó da aplicação.
+ */
+@Entity
+@Table(name = "activity_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_activity_rollups_bucket_node_activity",
+                columnNames = {"bucket_start", "node_id", "activity"}),
+        indexes = @Index(name = "idx_activity_rollups_bucket_start", columnList = "bucket_start"))
+public class ActivityRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private String activity;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    // Registradores do HyperLogLog de usuários distintos no bucket
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(name = "user_sketch", length = 1024)
+    private byte[] userSketch;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getActivity() {
+        return activity;
+    }
+
+    public void setActivity(String activity) {
+        this.activity = activity;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(long eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public byte[] getUserSketch() {
+        return userSketch;
+    }
+
+    public void setUserSketch(byte[] userSketch) {
+        this.userSketch = userSketch;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
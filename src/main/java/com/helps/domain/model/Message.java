@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_ticket_id", columnList = "ticket_id, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Message {
 
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_read", columnList = "user_id, read"),
+        @Index(name = "idx_notifications_user_created_at_id", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_notifications_read_created_at_id", columnList = "read, created_at, id")
+})
 public class Notification {
 
     @Id
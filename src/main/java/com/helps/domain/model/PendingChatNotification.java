@@ -0,0 +1,119 @@
+package com.helps.domain.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Notificação de chat ainda em agrupamento para um (usuário, ticket). Fica no banco, e não
+ * em memória, para sobreviver a reinícios depois que o evento do outbox já foi entregue.
+ */
+@Entity
+@Table(name = "pending_chat_notifications",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pending_chat_notifications_user_ticket",
+                columnNames = {"user_id", "ticket_id"}),
+        indexes = {
+                @Index(name = "idx_pending_chat_notifications_last_at", columnList = "last_at"),
+                @Index(name = "idx_pending_chat_notifications_first_at", columnList = "first_at")
+        })
+public class PendingChatNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Column(name = "message_count", nullable = false)
+    private int messageCount;
+
+    @Column(name = "last_sender_name")
+    private String lastSenderName;
+
+    @Column(name = "last_summary", length = 500)
+    private String lastSummary;
+
+    @Column(name = "first_at", nullable = false)
+    private LocalDateTime firstAt;
+
+    @Column(name = "last_at", nullable = false)
+    private LocalDateTime lastAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public void setTicketId(Long ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    public void setMessageCount(int messageCount) {
+        this.messageCount = messageCount;
+    }
+
+    public String getLastSenderName() {
+        return lastSenderName;
+    }
+
+    public void setLastSenderName(String lastSenderName) {
+        this.lastSenderName = lastSenderName;
+    }
+
+    public String getLastSummary() {
+        return lastSummary;
+    }
+
+    public void setLastSummary(String lastSummary) {
+        this.lastSummary = lastSummary;
+    }
+
+    public LocalDateTime getFirstAt() {
+        return firstAt;
+    }
+
+    public void setFirstAt(LocalDateTime firstAt) {
+        this.firstAt = firstAt;
+    }
+
+    public LocalDateTime getLastAt() {
+        return lastAt;
+    }
+
+    public void setLastAt(LocalDateTime lastAt) {
+        this.lastAt = lastAt;
+    }
+}
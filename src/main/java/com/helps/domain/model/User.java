@@ -3,6 +3,7 @@ package com.helps.domain.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.helps.dto.LoginRequest;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.HashSet;
@@ -28,6 +29,7 @@ public class User {
     @Column(nullable = false)
     private Boolean enabled = true;
 
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
             name = "user_roles",
@@ -0,0 +1,74 @@
+package com.helps.domain.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Sessão WebSocket inscrita na sala de chat de um ticket. Só conta como presença enquanto
+ * a sessão correspondente em websocket_sessions estiver dentro do lease.
+ */
+@Entity
+@Table(name = "websocket_room_members",
+        uniqueConstraints = @UniqueConstraint(name = "uk_websocket_room_members_session_ticket",
+                columnNames = {"session_id", "ticket_id"}),
+        indexes = {
+                @Index(name = "idx_websocket_room_members_ticket_username", columnList = "ticket_id, username"),
+                @Index(name = "idx_websocket_room_members_node_id", columnList = "node_id")
+        })
+public class WebSocketRoomMember {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false, length = 100)
+    private String sessionId;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public void setTicketId(Long ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+}
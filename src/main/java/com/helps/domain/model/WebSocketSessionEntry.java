@@ -0,0 +1,73 @@
+package com.helps.domain.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Sessão WebSocket ativa em alguma instância. A linha vale enquanto o nó dono
+ * renovar last_heartbeat dentro do lease.
+ */
+@Entity
+@Table(name = "websocket_sessions", indexes = {
+        @Index(name = "idx_websocket_sessions_username", columnList = "username, last_heartbeat"),
+        @Index(name = "idx_websocket_sessions_node_id", columnList = "node_id"),
+        @Index(name = "idx_websocket_sessions_last_heartbeat", columnList = "last_heartbeat")
+})
+public class WebSocketSessionEntry {
+
+    @Id
+    @Column(name = "session_id", length = 100)
+    private String sessionId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    @Column(name = "connected_at", nullable = false)
+    private LocalDateTime connectedAt;
+
+    @Column(name = "last_heartbeat", nullable = false)
+    private LocalDateTime lastHeartbeat;
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public LocalDateTime getConnectedAt() {
+        return connectedAt;
+    }
+
+    public void setConnectedAt(LocalDateTime connectedAt) {
+        this.connectedAt = connectedAt;
+    }
+
+    public LocalDateTime getLastHeartbeat() {
+        return lastHeartbeat;
+    }
+
+    public void setLastHeartbeat(LocalDateTime lastHeartbeat) {
+        this.lastHeartbeat = lastHeartbeat;
+    }
+}
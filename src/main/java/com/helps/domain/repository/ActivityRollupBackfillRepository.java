@@ -0,0 +1,36 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.ActivityRollupBackfill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ActivityRollupBackfillRepository extends JpaRepository<ActivityRollupBackfill, Long> {
+
+    // A chave primária fixa garante um único marcador mesmo com nós subindo juntos
+    @Modifying
+    @Query(value = "INSERT INTO activity_rollup_backfill (id, cutoff_log_id, created_at, completed_at) " +
+            "VALUES (:id, :cutoffLogId, :createdAt, :completedAt)", nativeQuery = true)
+    int insertMarker(@Param("id") Long id,
+                     @Param("cutoffLogId") Long cutoffLogId,
+                     @Param("createdAt") LocalDateTime createdAt,
+                     @Param("completedAt") LocalDateTime completedAt);
+
+    // Só um nó vence o UPDATE condicional; um claim antigo sem conclusão pode ser retomado
+    @Modifying
+    @Query("UPDATE ActivityRollupBackfill b SET b.claimedBy = :nodeId, b.claimedAt = :now " +
+            "WHERE b.id = :id AND b.completedAt IS NULL AND (b.claimedAt IS NULL OR b.claimedAt < :staleBefore)")
+    int claim(@Param("id") Long id,
+              @Param("nodeId") String nodeId,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE ActivityRollupBackfill b SET b.completedAt = :now WHERE b.id = :id AND b.claimedBy = :nodeId")
+    int complete(@Param("id") Long id, @Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+}
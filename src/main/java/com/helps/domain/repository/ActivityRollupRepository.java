@@ -0,0 +1,24 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.ActivityRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActivityRollupRepository extends JpaRepository<ActivityRollup, Long> {
+
+    List<ActivityRollup> findByBucketStartGreaterThanEqual(LocalDateTime since);
+
+    Optional<ActivityRollup> findByBucketStartAndNodeIdAndActivity(LocalDateTime bucketStart, String nodeId, String activity);
+
+    @Modifying
+    @Query("DELETE FROM ActivityRollup r WHERE r.bucketStart < :cutoff")
+    int deleteByBucketStartBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,7 +2,11 @@ package com.helps.domain.repository;
 
 import com.helps.domain.model.Ticket;
 import com.helps.domain.model.Message;
+import com.helps.dto.MessageResponseDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +14,27 @@ import java.util.List;
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByTicketOrderBySentDateAsc(Ticket ticket);
-}
\ No newline at end of file
+
+    long countByTicketId(Long ticketId);
+
+    // Histórico por chave id, a mesma ordem do buffer em memória e do anchor da reconexão
+
+    @Query("SELECT new com.helps.dto.MessageResponseDto(m.id, m.ticket.id, s.id, s.name, s.username, m.content, m.imagePath, m.sentDate) " +
+            "FROM Message m JOIN m.sender s WHERE m.ticket.id = :ticketId " +
+            "ORDER BY m.id DESC")
+    List<MessageResponseDto> findLatestByTicketId(@Param("ticketId") Long ticketId, Pageable pageable);
+
+    @Query("SELECT new com.helps.dto.MessageResponseDto(m.id, m.ticket.id, s.id, s.name, s.username, m.content, m.imagePath, m.sentDate) " +
+            "FROM Message m JOIN m.sender s WHERE m.ticket.id = :ticketId AND m.id < :beforeId " +
+            "ORDER BY m.id DESC")
+    List<MessageResponseDto> findByTicketIdBefore(@Param("ticketId") Long ticketId,
+                                                  @Param("beforeId") Long beforeId,
+                                                  Pageable pageable);
+
+    @Query("SELECT new com.helps.dto.MessageResponseDto(m.id, m.ticket.id, s.id, s.name, s.username, m.content, m.imagePath, m.sentDate) " +
+            "FROM Message m JOIN m.sender s WHERE m.ticket.id = :ticketId AND m.id > :afterId " +
+            "ORDER BY m.id ASC")
+    List<MessageResponseDto> findByTicketIdAfter(@Param("ticketId") Long ticketId,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+}
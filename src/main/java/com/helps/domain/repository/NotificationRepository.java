@@ -2,9 +2,15 @@ package com.helps.domain.repository;
 
 import com.helps.domain.model.Notification;
 import com.helps.domain.model.User;
+import com.helps.dto.NotificationDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +19,45 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserAndReadFalseOrderByCreatedAtDesc(User user);
     List<Notification> findByUserAndReadFalse(User user);
     int countByUserAndReadFalse(User user);
-}
\ No newline at end of file
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.read = false")
+    long countUnreadByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false")
+    int markAllReadByUserId(@Param("userId") Long userId);
+
+    // Limites opcionais: parâmetro nulo não restringe
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false " +
+            "AND (:maxId IS NULL OR n.id <= :maxId) AND (:until IS NULL OR n.createdAt <= :until)")
+    int markReadByUserIdUpTo(@Param("userId") Long userId,
+                             @Param("maxId") Long maxId,
+                             @Param("until") LocalDateTime until);
+
+    // Paginação por chave (createdAt, id) em ordem decrescente, projetada direto no DTO
+    @Query("SELECT new com.helps.dto.NotificationDto(n.id, n.message, n.type, n.read, n.ticketId, n.createdAt) " +
+            "FROM Notification n WHERE n.user.id = :userId AND (:unreadOnly = false OR n.read = false) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationDto> findPageByUserId(@Param("userId") Long userId,
+                                           @Param("unreadOnly") boolean unreadOnly,
+                                           Pageable pageable);
+
+    @Query("SELECT new com.helps.dto.NotificationDto(n.id, n.message, n.type, n.read, n.ticketId, n.createdAt) " +
+            "FROM Notification n WHERE n.user.id = :userId AND (:unreadOnly = false OR n.read = false) " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationDto> findPageByUserIdBefore(@Param("userId") Long userId,
+                                                 @Param("unreadOnly") boolean unreadOnly,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    // Ordem do índice (read, created_at, id): o LIMIT para no primeiro lote sem ordenar o restante
+    @Query("SELECT n.id FROM Notification n WHERE n.read = true AND n.createdAt < :cutoff ORDER BY n.createdAt, n.id")
+    List<Long> findReadIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,36 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.PendingChatNotification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PendingChatNotificationRepository extends JpaRepository<PendingChatNotification, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PendingChatNotification p WHERE p.userId = :userId AND p.ticketId = :ticketId")
+    Optional<PendingChatNotification> findForUpdate(@Param("userId") Long userId, @Param("ticketId") Long ticketId);
+
+    @Query("SELECT p.id FROM PendingChatNotification p " +
+            "WHERE p.lastAt <= :debounceCutoff OR p.firstAt <= :maxDelayCutoff ORDER BY p.id")
+    List<Long> findDueIds(@Param("debounceCutoff") LocalDateTime debounceCutoff,
+                          @Param("maxDelayCutoff") LocalDateTime maxDelayCutoff,
+                          Pageable pageable);
+
+    // SKIP LOCKED (timeout -2): cada entrada é entregue por uma única instância
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM PendingChatNotification p WHERE p.id = :id")
+    Optional<PendingChatNotification> findByIdForDelivery(@Param("id") Long id);
+}
@@ -0,0 +1,34 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_locks (name, locked_until, locked_by) VALUES (:name, :lockedUntil, :lockedBy)",
+            nativeQuery = true)
+    int insertLock(@Param("name") String name,
+                   @Param("lockedUntil") LocalDateTime lockedUntil,
+                   @Param("lockedBy") String lockedBy);
+
+    // Só um nó vence o UPDATE condicional enquanto o lock anterior não expirou
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :lockedUntil, l.lockedBy = :nodeId " +
+            "WHERE l.name = :name AND l.lockedUntil <= :now")
+    int acquire(@Param("name") String name,
+                @Param("nodeId") String nodeId,
+                @Param("now") LocalDateTime now,
+                @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :nodeId")
+    int release(@Param("name") String name, @Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+}
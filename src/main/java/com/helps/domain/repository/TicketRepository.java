@@ -2,20 +2,51 @@ package com.helps.domain.repository;
 
 import com.helps.domain.model.Ticket;
 import com.helps.domain.model.User;
+import com.helps.dto.SimpleUserDto;
+import com.helps.dto.TicketChatInfoDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecificationExecutor<Ticket> {
     List<Ticket> findByStatus(String status);
     List<Ticket> findByHelper(User helper);
+
+    // Carrega solicitante e helper na mesma consulta para evitar N+1 na conversão para DTO.
+    // LOAD mantém os demais atributos com o fetch do mapeamento (os papéis do usuário seguem EAGER)
+    @EntityGraph(attributePaths = {"user", "helper"}, type = EntityGraph.EntityGraphType.LOAD)
     List<Ticket> findByUser(User user);
 
+    @Override
+    @EntityGraph(attributePaths = {"user", "helper"}, type = EntityGraph.EntityGraphType.LOAD)
+    List<Ticket> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"user", "helper"}, type = EntityGraph.EntityGraphType.LOAD)
+    List<Ticket> findAll(Specification<Ticket> spec);
+
+    @Override
+    @EntityGraph(attributePaths = {"user", "helper"}, type = EntityGraph.EntityGraphType.LOAD)
+    Page<Ticket> findAll(Specification<Ticket> spec, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "helper"}, type = EntityGraph.EntityGraphType.LOAD)
+    List<Ticket> findByIdIn(Collection<Long> ids);
+
     @Query("SELECT t FROM Ticket t WHERE t.helper.id = :helperId OR t.status = :status")
     List<Ticket> findByHelperOrStatus(@Param("helperId") Long helperId, @Param("status") String status);
 
@@ -27,4 +58,32 @@ public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecif
 
     @Query("SELECT t FROM Ticket t WHERE (t.helper = :user OR t.user = :user) AND t.status != 'FECHADO'")
     List<Ticket> findActiveTicketsByUser(@Param("user") User user);
-}
\ No newline at end of file
+
+    // Streaming com fetch size fixo para exportações sem carregar tudo no heap
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Ticket t LEFT JOIN FETCH t.user LEFT JOIN FETCH t.helper ORDER BY t.id")
+    Stream<Ticket> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Ticket t LEFT JOIN FETCH t.user LEFT JOIN FETCH t.helper WHERE t.user = :user ORDER BY t.id")
+    Stream<Ticket> streamByUser(@Param("user") User user);
+
+    // Solicitante e helper do ticket em uma única consulta, sem carregar as entidades
+    @Query("SELECT new com.helps.dto.SimpleUserDto(u.id, u.username, u.name) " +
+            "FROM Ticket t, User u WHERE t.id = :ticketId AND (u = t.user OR u = t.helper)")
+    List<SimpleUserDto> findParticipants(@Param("ticketId") Long ticketId);
+
+    @Query("SELECT new com.helps.dto.TicketChatInfoDto(t.id, t.status, u.id, h.id) " +
+            "FROM Ticket t LEFT JOIN t.user u LEFT JOIN t.helper h WHERE t.id = :ticketId")
+    Optional<TicketChatInfoDto> findChatInfo(@Param("ticketId") Long ticketId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t.id, t.title, t.description FROM Ticket t")
+    Stream<Object[]> streamSearchableFields();
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserActivityLogRepository extends JpaRepository<UserActivityLog, Long> {
@@ -47,4 +48,14 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
            "WHERE u.createdAt BETWEEN :startDate AND :endDate " +
            "GROUP BY u.activity")
     List<Object[]> findActivitiesByTypeRaw(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+
+    @Query("SELECT MAX(u.createdAt) FROM UserActivityLog u")
+    LocalDateTime findLatestCreatedAt();
+
+    @Query("SELECT MAX(u.id) FROM UserActivityLog u")
+    Long findMaxId();
+
+    @Query("SELECT u.user.id, u.activity, u.createdAt FROM UserActivityLog u " +
+           "WHERE u.id <= :cutoffId AND u.createdAt >= :since")
+    Stream<Object[]> streamRollupFieldsUpTo(@Param("cutoffId") Long cutoffId, @Param("since") LocalDateTime since);
+}
@@ -2,11 +2,13 @@ package com.helps.domain.repository;
 
 import com.helps.domain.model.Role;
 import com.helps.domain.model.User;
+import com.helps.dto.SimpleUserDto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +21,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :roleName AND u.enabled = true")
     List<User> findByRoleName(@Param("roleName") String roleName);
+
+    // Projeção enxuta para fan-out de notificações: uma única consulta, sem carregar papéis
+    @Query("SELECT DISTINCT new com.helps.dto.SimpleUserDto(u.id, u.username, u.name) " +
+            "FROM User u JOIN u.roles r WHERE UPPER(r.name) IN :roleNames AND u.enabled = true")
+    List<SimpleUserDto> findEnabledSummariesByRoleNames(@Param("roleNames") Collection<String> roleNames);
 }
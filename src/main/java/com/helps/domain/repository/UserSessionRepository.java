@@ -5,11 +5,13 @@ import com.helps.domain.model.UserSession;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,4 +34,17 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     Page<UserSession> findByLoginTimeBetween(@Param("startDate") LocalDateTime startDate,
                                              @Param("endDate") LocalDateTime endDate,
                                              Pageable pageable);
-}
\ No newline at end of file
+
+    // Varredura de timeout: id, id do usuário, username e nome das sessões expiradas
+    @Query("SELECT us.id, u.id, u.username, u.name FROM UserSession us JOIN us.user u " +
+           "WHERE us.isActive = true AND us.lastActivity < :timeout ORDER BY us.id")
+    List<Object[]> findExpiredSessionSummaries(@Param("timeout") LocalDateTime timeout, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE UserSession us SET us.isActive = false, us.logoutTime = :logoutTime " +
+           "WHERE us.id IN :ids AND us.isActive = true")
+    int deactivateByIds(@Param("ids") Collection<Long> ids, @Param("logoutTime") LocalDateTime logoutTime);
+
+    @Query("SELECT us.id FROM UserSession us WHERE us.id IN :ids AND us.isActive = false AND us.logoutTime = :logoutTime")
+    List<Long> findIdsDeactivatedAt(@Param("ids") Collection<Long> ids, @Param("logoutTime") LocalDateTime logoutTime);
+}
@@ -0,0 +1,41 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.WebSocketRoomMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface WebSocketRoomMemberRepository extends JpaRepository<WebSocketRoomMember, Long> {
+
+    boolean existsBySessionIdAndTicketId(String sessionId, Long ticketId);
+
+    // Presença vale só para sessões vivas em algum nó
+    @Query("SELECT COUNT(r) > 0 FROM WebSocketRoomMember r, WebSocketSessionEntry s " +
+            "WHERE s.sessionId = r.sessionId AND r.ticketId = :ticketId AND r.username = :username " +
+            "AND s.lastHeartbeat >= :aliveSince")
+    boolean existsAlive(@Param("username") String username,
+                        @Param("ticketId") Long ticketId,
+                        @Param("aliveSince") LocalDateTime aliveSince);
+
+    @Modifying
+    @Query("DELETE FROM WebSocketRoomMember r WHERE r.sessionId = :sessionId AND r.ticketId = :ticketId")
+    int deleteMember(@Param("sessionId") String sessionId, @Param("ticketId") Long ticketId);
+
+    @Modifying
+    @Query("DELETE FROM WebSocketRoomMember r WHERE r.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Query("DELETE FROM WebSocketRoomMember r WHERE r.nodeId = :nodeId")
+    int deleteByNodeId(@Param("nodeId") String nodeId);
+
+    @Modifying
+    @Query("DELETE FROM WebSocketRoomMember r WHERE NOT EXISTS " +
+            "(SELECT s.sessionId FROM WebSocketSessionEntry s WHERE s.sessionId = r.sessionId)")
+    int deleteOrphans();
+}
@@ -0,0 +1,45 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.WebSocketSessionEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WebSocketSessionEntryRepository extends JpaRepository<WebSocketSessionEntry, String> {
+
+    @Query("SELECT s.sessionId FROM WebSocketSessionEntry s WHERE s.username = :username AND s.lastHeartbeat >= :aliveSince")
+    List<String> findSessionIdsByUsername(@Param("username") String username, @Param("aliveSince") LocalDateTime aliveSince);
+
+    @Query("SELECT s FROM WebSocketSessionEntry s WHERE s.sessionId = :sessionId AND s.lastHeartbeat >= :aliveSince")
+    Optional<WebSocketSessionEntry> findAlive(@Param("sessionId") String sessionId, @Param("aliveSince") LocalDateTime aliveSince);
+
+    boolean existsByUsernameAndLastHeartbeatGreaterThanEqual(String username, LocalDateTime aliveSince);
+
+    long countByLastHeartbeatGreaterThanEqual(LocalDateTime aliveSince);
+
+    @Query("SELECT COUNT(DISTINCT s.username) FROM WebSocketSessionEntry s WHERE s.lastHeartbeat >= :aliveSince")
+    long countDistinctUsernames(@Param("aliveSince") LocalDateTime aliveSince);
+
+    @Modifying
+    @Query("UPDATE WebSocketSessionEntry s SET s.lastHeartbeat = :now WHERE s.nodeId = :nodeId")
+    int renewLease(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM WebSocketSessionEntry s WHERE s.lastHeartbeat < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM WebSocketSessionEntry s WHERE s.nodeId = :nodeId")
+    int deleteByNodeId(@Param("nodeId") String nodeId);
+
+    @Modifying
+    @Query("DELETE FROM WebSocketSessionEntry s WHERE s.sessionId = :sessionId AND s.username = :username")
+    int deleteSession(@Param("sessionId") String sessionId, @Param("username") String username);
+}
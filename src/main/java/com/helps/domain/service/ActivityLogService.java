@@ -8,22 +8,33 @@ import com.helps.domain.repository.UserSessionRepository;
 import com.helps.dto.ActivityLogDto;
 import com.helps.dto.ActivityStatsDto;
 import com.helps.dto.UserSessionDto;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,6 +44,8 @@ public class ActivityLogService {
     private static final ZoneId BRAZIL_ZONE = ZoneId.of("America/Sao_Paulo");
     private static final DateTimeFormatter READABLE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
 
+    private record SweepResult(int selected, int expired) {}
+
     @Autowired
     private UserActivityLogRepository activityLogRepository;
 
@@ -42,21 +55,71 @@ public class ActivityLogService {
     @Autowired
     private UserContextService userContextService;
 
-    @Transactional
+    @Autowired
+    private ActivityLogWriter activityLogWriter;
+
+    @Autowired
+    private ActivityRollupService activityRollupService;
+
+    @Autowired
+    private SessionActivityTracker sessionActivityTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${session.sweep.chunk-size:500}")
+    private int sessionSweepChunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registra a atividade de forma assíncrona. Dentro de uma transação a entrada só é
+     * enfileirada após o commit, para não auditar operações desfeitas.
+     */
     public void logActivity(User user, String activity, HttpServletRequest request, String additionalInfo) {
-        UserActivityLog log = new UserActivityLog();
-        log.setUser(user);
-        log.setActivity(activity);
-        log.setCreatedAt(getCurrentBrazilTime());
-        log.setAdditionalInfo(formatActivityMessage(activity, user, additionalInfo));
+        String ipAddress = null;
+        String userAgent = null;
+        String sessionId = null;
 
         if (request != null) {
-            log.setIpAddress(getClientIpAddress(request));
-            log.setUserAgent(request.getHeader("User-Agent"));
-            log.setSessionId(request.getSession().getId());
+            ipAddress = getClientIpAddress(request);
+            userAgent = request.getHeader("User-Agent");
+            sessionId = request.getSession().getId();
         }
 
-        activityLogRepository.save(log);
+        ActivityLogWriter.Entry entry = new ActivityLogWriter.Entry(
+                user.getId(),
+                activity,
+                ipAddress,
+                userAgent,
+                sessionId,
+                getCurrentBrazilTime(),
+                formatActivityMessage(activity, user.getName() != null ? user.getName() : user.getUsername(), additionalInfo)
+        );
+
+        submitAfterCommit(List.of(entry));
+    }
+
+    private void submitAfterCommit(List<ActivityLogWriter.Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.forEach(activityLogWriter::submit);
+                }
+            });
+        } else {
+            entries.forEach(activityLogWriter::submit);
+        }
     }
 
     @Transactional
@@ -134,44 +197,77 @@ public class ActivityLogService {
         }
     }
 
-    @Transactional
+    /**
+     * Marca acesso da sessão; a gravação no banco é feita em lote pelo {@link SessionActivityTracker}.
+     */
     public void updateLastActivity(String sessionId) {
-        sessionRepository.findBySessionIdAndIsActiveTrue(sessionId)
-                .ifPresent(session -> {
-                    session.setLastActivity(getCurrentBrazilTime());
-                    sessionRepository.save(session);
-                });
+        sessionActivityTracker.touch(sessionId, getCurrentBrazilTime());
     }
 
+    /**
+     * Encerra sessões inativas há mais de 2 horas em lotes: seleciona os IDs pelo índice
+     * (is_active, last_activity), desativa com um UPDATE em massa e enfileira os logs
+     * de auditoria de uma vez. Cada lote tem transação própria.
+     */
     @Scheduled(fixedRate = 300000)
-    @Transactional
     public void cleanupInactiveSessions() {
         try {
+            // Grava os acessos pendentes antes de avaliar o timeout
+            sessionActivityTracker.flush();
+
             LocalDateTime timeout = getCurrentBrazilTime().minusHours(2);
+            int total = 0;
+            int selected;
 
-            List<UserSession> inactiveSessions = sessionRepository.findActiveSessions()
-                    .stream()
-                    .filter(session -> session.getLastActivity().isBefore(timeout))
-                    .collect(Collectors.toList());
+            do {
+                SweepResult result = transactionTemplate.execute(status -> sweepExpiredSessions(timeout));
+                selected = result != null ? result.selected() : 0;
+                total += result != null ? result.expired() : 0;
+            } while (selected == sessionSweepChunkSize);
 
-            for (UserSession session : inactiveSessions) {
-                session.setLogoutTime(getCurrentBrazilTime());
-                session.setIsActive(false);
-                sessionRepository.save(session);
+            if (total > 0) {
+                System.out.println("Limpeza de sessões: " + total + " sessões inativas finalizadas");
+            }
+        } catch (Exception e) {
+            System.err.println("Erro na limpeza de sessões: " + e.getMessage());
+        }
+    }
 
-                Duration sessionDuration = Duration.between(session.getLoginTime(), session.getLogoutTime());
-                String durationText = formatDuration(sessionDuration);
+    private SweepResult sweepExpiredSessions(LocalDateTime timeout) {
+        List<Object[]> candidates = sessionRepository.findExpiredSessionSummaries(
+                timeout, PageRequest.of(0, sessionSweepChunkSize));
+        if (candidates.isEmpty()) {
+            return new SweepResult(0, 0);
+        }
 
-                logActivity(session.getUser(), "SESSION_TIMEOUT", null,
-                        "Sessão expirada por inatividade - Duração: " + durationText);
-            }
+        List<Long> ids = candidates.stream().map(row -> (Long) row[0]).toList();
+        LocalDateTime logoutTime = getCurrentBrazilTime();
+        int updated = sessionRepository.deactivateByIds(ids, logoutTime);
 
-            if (!inactiveSessions.isEmpty()) {
-                System.out.println("Limpeza de sessões: " + inactiveSessions.size() + " sessões inativas finalizadas");
+        // Outra instância pode ter encerrado parte do lote; audita apenas o que este UPDATE alterou
+        Set<Long> expiredIds = updated == ids.size() ?
+                new HashSet<>(ids) :
+                new HashSet<>(sessionRepository.findIdsDeactivatedAt(ids, logoutTime));
+
+        List<ActivityLogWriter.Entry> entries = new ArrayList<>(expiredIds.size());
+        for (Object[] row : candidates) {
+            if (!expiredIds.contains((Long) row[0])) {
+                continue;
             }
-        } catch (Exception e) {
-            System.err.println("Erro na limpeza de sessões: " + e.getMessage());
+            String userName = row[3] != null ? (String) row[3] : (String) row[2];
+            entries.add(new ActivityLogWriter.Entry(
+                    (Long) row[1],
+                    "SESSION_TIMEOUT",
+                    null,
+                    null,
+                    null,
+                    logoutTime,
+                    formatActivityMessage("SESSION_TIMEOUT", userName, null)
+            ));
         }
+
+        submitAfterCommit(entries);
+        return new SweepResult(candidates.size(), entries.size());
     }
 
     public Page<ActivityLogDto> getActivityLogs(Pageable pageable) {
@@ -201,28 +297,29 @@ public class ActivityLogService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Estatísticas das últimas 24 horas (buckets de hora cheia) a partir do rollup
+     * pré-agregado, sem varrer o log de atividades.
+     */
     public ActivityStatsDto getActivityStats() {
-        LocalDateTime now = getCurrentBrazilTime();
-        LocalDateTime oneDayAgo = now.minusDays(1);
+        LocalDateTime since = getCurrentBrazilTime().truncatedTo(ChronoUnit.HOURS).minusHours(23);
 
         Long totalSessions = sessionRepository.count();
         Long activeSessions = sessionRepository.countActiveSessions();
 
-        // Otimização: usar contagem direta em vez de carregar todos os logs
-        Long totalLogins24h = activityLogRepository.countByActivityAndCreatedAtAfter("LOGIN", oneDayAgo);
-        Long uniqueUsers24h = activityLogRepository.countDistinctUserByActivityAndCreatedAtAfter("LOGIN", oneDayAgo);
+        ActivityRollupService.Snapshot snapshot = activityRollupService.getSnapshot(since);
 
-        // Otimização: usar consultas específicas para agregações
-        Map<String, Long> loginsByHour = convertToLoginsByHour(activityLogRepository.findLoginsByHourRaw(oneDayAgo));
-        Map<String, Long> activitiesByType = convertToActivitiesByType(activityLogRepository.findActivitiesByTypeRaw(oneDayAgo, now));
+        Map<String, Long> activitiesByType = new HashMap<>();
+        snapshot.countsByActivity().forEach((activity, count) ->
+                activitiesByType.merge(getReadableActivityName(activity), count, Long::sum));
 
         return new ActivityStatsDto(
                 totalSessions,
                 activeSessions,
-                totalLogins24h,
-                uniqueUsers24h,
+                snapshot.totalLogins(),
+                snapshot.uniqueLoginUsers(),
                 activeSessions,
-                loginsByHour,
+                snapshot.loginsByHour(),
                 activitiesByType
         );
     }
@@ -269,35 +366,7 @@ public class ActivityLogService {
         return LocalDateTime.now(BRAZIL_ZONE);
     }
 
-    /**
-     * Converte resultado da consulta para Map de logins por hora
-     */
-    private Map<String, Long> convertToLoginsByHour(List<Object[]> results) {
-        Map<String, Long> loginsByHour = new HashMap<>();
-        for (Object[] result : results) {
-            String hour = String.valueOf(result[0]);
-            Long count = (Long) result[1];
-            loginsByHour.put(hour, count);
-        }
-        return loginsByHour;
-    }
-
-    /**
-     * Converte resultado da consulta para Map de atividades por tipo
-     */
-    private Map<String, Long> convertToActivitiesByType(List<Object[]> results) {
-        Map<String, Long> activitiesByType = new HashMap<>();
-        for (Object[] result : results) {
-            String activity = (String) result[0];
-            Long count = (Long) result[1];
-            activitiesByType.put(getReadableActivityName(activity), count);
-        }
-        return activitiesByType;
-    }
-
-    private String formatActivityMessage(String activity, User user, String additionalInfo) {
-        String userName = user.getName() != null ? user.getName() : user.getUsername();
-
+    private String formatActivityMessage(String activity, String userName, String additionalInfo) {
         switch (activity) {
             case "LOGIN":
                 return "Usuário " + userName + " fez login no sistema";
@@ -0,0 +1,424 @@
+package com.helps.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helps.dto.ActivityLogWriterMetricsDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gravação assíncrona do log de atividades: as entradas vão para uma fila limitada
+ * e uma thread dedicada grava em lotes JDBC, por tamanho ou por tempo.
+ * Com a fila cheia aplica a política configurada (BLOCK, DROP ou SPILL para arquivo local).
+ */
+@Slf4j
+@Service
+public class ActivityLogWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO user_activity_logs " +
+            "(user_id, activity, ip_address, user_agent, session_id, created_at, additional_info) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    public enum OverflowPolicy { BLOCK, DROP, SPILL }
+
+    public record Entry(
+            Long userId,
+            String activity,
+            String ipAddress,
+            String userAgent,
+            String sessionId,
+            LocalDateTime createdAt,
+            String additionalInfo
+    ) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ActivityRollupService activityRollupService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${activity-log.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${activity-log.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${activity-log.writer.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${activity-log.writer.overflow-policy:BLOCK}")
+    private String overflowPolicy;
+
+    @Value("${activity-log.writer.spill-file:${java.io.tmpdir}/helps-activity-log.spill}")
+    private String spillFile;
+
+    @Value("${activity-log.writer.replay-retry-ms:30000}")
+    private long replayRetryMs;
+
+    @Value("${activity-log.writer.replay-interval-ms:5000}")
+    private long replayIntervalMs;
+
+    @Value("${activity-log.writer.replay-batches-per-cycle:5}")
+    private int replayBatchesPerCycle;
+
+    @Value("${activity-log.writer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<Entry> queue;
+    private OverflowPolicy policy;
+    private Path spillPath;
+    private TransactionTemplate transactionTemplate;
+    private Thread drainThread;
+    private volatile boolean running;
+    private long nextReplayAt;
+
+    private final Object spillLock = new Object();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        policy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        spillPath = Paths.get(spillFile);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+
+        drainThread = new Thread(this::drainLoop, "activity-log-writer");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * Enfileira uma entrada; só bloqueia a chamadora com a fila cheia e política BLOCK.
+     */
+    public void submit(Entry entry) {
+        if (!running) {
+            flush(List.of(entry));
+            return;
+        }
+
+        if (queue.offer(entry)) {
+            return;
+        }
+
+        switch (policy) {
+            case BLOCK -> {
+                try {
+                    queue.put(entry);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCount.incrementAndGet();
+                }
+            }
+            case DROP -> droppedCount.incrementAndGet();
+            case SPILL -> spill(List.of(entry));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            drainThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Entry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        log.info("Writer de atividades finalizado: {} gravadas, {} descartadas, {} em arquivo",
+                writtenCount.get(), droppedCount.get(), spilledCount.get());
+    }
+
+    public ActivityLogWriterMetricsDto getMetrics() {
+        return new ActivityLogWriterMetricsDto(
+                queue.size(),
+                writtenCount.get(),
+                droppedCount.get(),
+                spilledCount.get(),
+                failedBatchCount.get()
+        );
+    }
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                // Checado a cada volta, e não só com a fila ociosa: sob carga contínua o arquivo também é drenado
+                if (running && System.currentTimeMillis() >= nextReplayAt) {
+                    replaySpill();
+                }
+
+                Entry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+
+                    Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Erro no writer de atividades: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch) {
+        try {
+            insert(batch);
+            writtenCount.addAndGet(batch.size());
+            activityRollupService.record(batch);
+        } catch (Exception e) {
+            failedBatchCount.incrementAndGet();
+            log.error("Falha ao gravar lote de {} atividades, enviando para arquivo: {}", batch.size(), e.getMessage());
+            spill(batch);
+        }
+    }
+
+    // Cada lote é atômico: um lote com falha não deixa parte das linhas gravadas
+    private void insert(List<Entry> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+            ps.setLong(1, entry.userId());
+            ps.setString(2, entry.activity());
+            ps.setString(3, entry.ipAddress());
+            ps.setString(4, entry.userAgent());
+            ps.setString(5, entry.sessionId());
+            if (entry.createdAt() != null) {
+                ps.setTimestamp(6, Timestamp.valueOf(entry.createdAt()));
+            } else {
+                ps.setNull(6, Types.TIMESTAMP);
+            }
+            ps.setString(7, entry.additionalInfo());
+        }));
+    }
+
+    private void spill(List<Entry> entries) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Entry entry : entries) {
+                    writer.write(objectMapper.writeValueAsString(entry));
+                    writer.newLine();
+                }
+                spilledCount.addAndGet(entries.size());
+            } catch (IOException e) {
+                droppedCount.addAndGet(entries.size());
+                log.error("Falha ao gravar atividades em {}: {}", spillPath, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Regrava no banco as entradas em arquivo, em lotes transacionais, até
+     * activity-log.writer.replay-batches-per-cycle lotes por chamada, para não atrasar a fila.
+     * O arquivo é lido linha a linha a partir do offset salvo em um arquivo ao lado, atualizado
+     * após o commit de cada lote; uma interrupção entre o commit e a gravação do offset faz o
+     * lote ser regravado no próximo ciclo, então a entrega é pelo menos uma vez (at-least-once).
+     * Só entradas inválidas (JSON ilegível ou violação de integridade) são separadas no arquivo
+     * ".failed" para análise manual.
+     */
+    private void replaySpill() {
+        Path replayPath = spillSibling(".replay");
+        Path offsetPath = spillSibling(".replay.offset");
+
+        synchronized (spillLock) {
+            if (!Files.exists(replayPath)) {
+                if (!Files.exists(spillPath)) {
+                    nextReplayAt = System.currentTimeMillis() + replayIntervalMs;
+                    return;
+                }
+                try {
+                    Files.deleteIfExists(offsetPath);
+                    Files.move(spillPath, replayPath);
+                } catch (IOException e) {
+                    nextReplayAt = System.currentTimeMillis() + replayRetryMs;
+                    log.error("Falha ao preparar reprocessamento de {}: {}", spillPath, e.getMessage());
+                    return;
+                }
+            }
+        }
+
+        long offset;
+        int replayed = 0;
+        boolean finished = false;
+        try (BufferedReader reader = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            offset = readOffset(offsetPath);
+            for (long skipped = 0; skipped < offset && reader.readLine() != null; skipped++) {
+                // Linhas já gravadas em ciclos anteriores
+            }
+
+            List<Entry> batch = new ArrayList<>(batchSize);
+            int batches = 0;
+            String line;
+            while (batches < replayBatchesPerCycle && (line = reader.readLine()) != null) {
+                offset++;
+                if (!line.isBlank()) {
+                    try {
+                        batch.add(objectMapper.readValue(line, Entry.class));
+                    } catch (IOException e) {
+                        quarantine(List.of(line));
+                    }
+                }
+
+                if (batch.size() == batchSize) {
+                    replayed += replayBatch(batch);
+                    batch.clear();
+                    batches++;
+                    writeOffset(offsetPath, offset);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                replayed += replayBatch(batch);
+            }
+            writeOffset(offsetPath, offset);
+            finished = reader.readLine() == null;
+        } catch (Exception e) {
+            nextReplayAt = System.currentTimeMillis() + replayRetryMs;
+            log.warn("Reprocessamento de {} interrompido, nova tentativa em {} ms: {}",
+                    replayPath, replayRetryMs, e.getMessage());
+            return;
+        }
+
+        if (replayed > 0) {
+            log.info("Reprocessadas {} atividades de {}", replayed, spillPath);
+        }
+
+        if (!finished) {
+            // Ainda há linhas: continua na próxima volta do loop, intercalado com a fila
+            nextReplayAt = 0;
+            return;
+        }
+
+        try {
+            Files.delete(replayPath);
+            Files.deleteIfExists(offsetPath);
+            nextReplayAt = 0;
+        } catch (IOException e) {
+            nextReplayAt = System.currentTimeMillis() + replayRetryMs;
+            log.warn("Falha ao remover {} após reprocessamento: {}", replayPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Grava um lote do reprocessamento. Se alguma entrada violar restrições do banco, o lote
+     * é regravado entrada a entrada e só as rejeitadas vão para ".failed"; as demais falhas
+     * (banco indisponível) sobem para interromper o reprocessamento sem avançar o offset.
+     */
+    private int replayBatch(List<Entry> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Entry> accepted = batch;
+        try {
+            insert(batch);
+        } catch (DataIntegrityViolationException e) {
+            accepted = new ArrayList<>(batch.size());
+            List<String> rejected = new ArrayList<>();
+            for (Entry entry : batch) {
+                try {
+                    insert(List.of(entry));
+                    accepted.add(entry);
+                } catch (DataIntegrityViolationException rejectedEntry) {
+                    rejected.add(objectMapper.writeValueAsString(entry));
+                }
+            }
+            quarantine(rejected);
+        }
+
+        writtenCount.addAndGet(accepted.size());
+        activityRollupService.record(accepted);
+        return accepted.size();
+    }
+
+    private void quarantine(List<String> lines) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        Path failedPath = spillSibling(".failed");
+        Files.write(failedPath, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.error("{} atividades inválidas separadas em {}", lines.size(), failedPath);
+    }
+
+    private long readOffset(Path offsetPath) throws IOException {
+        if (!Files.exists(offsetPath)) {
+            return 0;
+        }
+
+        try {
+            return Long.parseLong(Files.readString(offsetPath, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Offset de reprocessamento inválido em " + offsetPath, e);
+        }
+    }
+
+    private void writeOffset(Path offsetPath, long offset) throws IOException {
+        Files.writeString(offsetPath, String.valueOf(offset), StandardCharsets.UTF_8);
+    }
+
+    private Path spillSibling(String suffix) {
+        return spillPath.resolveSibling(spillPath.getFileName() + suffix);
+    }
+}
@@ -0,0 +1,306 @@
+package com.helps.domain.service;
+
+import com.helps.domain.model.ActivityRollup;
+import com.helps.domain.model.ActivityRollupBackfill;
+import com.helps.domain.repository.ActivityRollupBackfillRepository;
+import com.helps.domain.repository.ActivityRollupRepository;
+import com.helps.domain.repository.UserActivityLogRepository;
+import com.helps.infra.config.NodeIdentity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Rollup incremental do log de atividades: contagens por hora e tipo, com sketch
+ * HyperLogLog de usuários distintos. As entradas gravadas pelo {@link ActivityLogWriter}
+ * são acumuladas em memória e persistidas periodicamente em linhas por nó,
+ * que são somadas na leitura.
+ */
+@Slf4j
+@Service
+public class ActivityRollupService {
+
+    private static final String LOGIN_ACTIVITY = "LOGIN";
+
+    // Claim de backfill sem conclusão após esse tempo é considerado de um nó que caiu
+    private static final Duration BACKFILL_CLAIM_TIMEOUT = Duration.ofMinutes(10);
+
+    public record Snapshot(
+            long totalLogins,
+            long uniqueLoginUsers,
+            Map<String, Long> loginsByHour,
+            Map<String, Long> countsByActivity
+    ) {}
+
+    private record BucketKey(LocalDateTime bucketStart, String activity) {}
+
+    private static final class Delta {
+        private long count;
+        private final HyperLogLog users = new HyperLogLog();
+
+        synchronized void add(Long userId) {
+            count++;
+            if (userId != null) {
+                users.add(userId);
+            }
+        }
+    }
+
+    @Autowired
+    private ActivityRollupRepository rollupRepository;
+
+    @Autowired
+    private ActivityRollupBackfillRepository backfillRepository;
+
+    @Autowired
+    private UserActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${activity-rollup.retention-days:30}")
+    private int retentionDays;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Swap do mapa pendente sob write lock para não perder registros durante a persistência
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private volatile Map<BucketKey, Delta> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Grava o marcador do backfill com o maior id do log antes de o {@link ActivityLogWriter}
+     * começar a gravar (ele depende deste bean, então só inicia depois). Com rollup já
+     * existente o marcador nasce concluído.
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try {
+            if (backfillRepository.existsById(ActivityRollupBackfill.SINGLETON_ID)) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> backfillRepository.insertMarker(
+                    ActivityRollupBackfill.SINGLETON_ID,
+                    activityLogRepository.findMaxId(),
+                    now,
+                    rollupRepository.count() > 0 ? now : null));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Marcador de backfill do rollup já criado por outro nó");
+        } catch (Exception e) {
+            log.error("Falha ao registrar marcador de backfill do rollup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Contabiliza entradas já gravadas no banco.
+     */
+    public void record(List<ActivityLogWriter.Entry> entries) {
+        pendingLock.readLock().lock();
+        try {
+            for (ActivityLogWriter.Entry entry : entries) {
+                record(entry.userId(), entry.activity(), entry.createdAt());
+            }
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    private void record(Long userId, String activity, LocalDateTime createdAt) {
+        count(pending, userId, activity, createdAt);
+    }
+
+    private void count(Map<BucketKey, Delta> target, Long userId, String activity, LocalDateTime createdAt) {
+        if (activity == null || createdAt == null) {
+            return;
+        }
+        BucketKey key = new BucketKey(createdAt.truncatedTo(ChronoUnit.HOURS), activity);
+        target.computeIfAbsent(key, k -> new Delta()).add(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${activity-rollup.flush-interval-ms:60000}")
+    @PreDestroy
+    public synchronized void persist() {
+        Map<BucketKey, Delta> snapshot;
+        pendingLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            snapshot = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> snapshot.forEach(this::merge));
+        } catch (Exception e) {
+            log.error("Falha ao persistir rollup de atividades, mantendo em memória: {}", e.getMessage());
+            restore(snapshot);
+        }
+    }
+
+    /**
+     * Soma as linhas persistidas a partir de {@code since} (início de hora) com o que ainda
+     * está em memória neste nó.
+     */
+    public Snapshot getSnapshot(LocalDateTime since) {
+        Map<String, Long> countsByActivity = new HashMap<>();
+        Map<String, Long> loginsByHour = new HashMap<>();
+        HyperLogLog loginUsers = new HyperLogLog();
+
+        for (ActivityRollup rollup : rollupRepository.findByBucketStartGreaterThanEqual(since)) {
+            accumulate(rollup.getBucketStart(), rollup.getActivity(), rollup.getEventCount(),
+                    HyperLogLog.fromBytes(rollup.getUserSketch()), countsByActivity, loginsByHour, loginUsers);
+        }
+
+        for (Map.Entry<BucketKey, Delta> entry : pending.entrySet()) {
+            BucketKey key = entry.getKey();
+            if (key.bucketStart().isBefore(since)) {
+                continue;
+            }
+
+            Delta delta = entry.getValue();
+            long count;
+            HyperLogLog users = new HyperLogLog();
+            synchronized (delta) {
+                count = delta.count;
+                users.merge(delta.users);
+            }
+            accumulate(key.bucketStart(), key.activity(), count, users, countsByActivity, loginsByHour, loginUsers);
+        }
+
+        return new Snapshot(
+                countsByActivity.getOrDefault(LOGIN_ACTIVITY, 0L),
+                loginUsers.estimate(),
+                loginsByHour,
+                countsByActivity
+        );
+    }
+
+    /**
+     * Na primeira subida (sem marcador) gera o rollup das últimas 24h de log existente.
+     * Só entram linhas até o id de corte gravado em {@link #init()}; o que vier depois já
+     * passa pelo {@link ActivityLogWriter}. O claim no marcador garante um único nó.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer claimed = transactionTemplate.execute(status -> backfillRepository.claim(
+                    ActivityRollupBackfill.SINGLETON_ID, nodeIdentity.getNodeId(), now, now.minus(BACKFILL_CLAIM_TIMEOUT)));
+            if (claimed == null || claimed == 0) {
+                return;
+            }
+
+            Long cutoffId = backfillRepository.findById(ActivityRollupBackfill.SINGLETON_ID)
+                    .map(ActivityRollupBackfill::getCutoffLogId)
+                    .orElse(null);
+            Map<BucketKey, Delta> counted = new HashMap<>();
+            LocalDateTime latest = cutoffId != null ? activityLogRepository.findLatestCreatedAt() : null;
+            if (latest != null) {
+                LocalDateTime since = latest.truncatedTo(ChronoUnit.HOURS).minusHours(23);
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = activityLogRepository.streamRollupFieldsUpTo(cutoffId, since)) {
+                        rows.forEach(row -> count(counted, (Long) row[0], (String) row[1], (LocalDateTime) row[2]));
+                    }
+                });
+            }
+            persistBackfill(counted);
+        } catch (Exception e) {
+            log.error("Falha ao gerar rollup inicial de atividades: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${activity-rollup.cleanup.cron:0 45 3 * * *}")
+    public void cleanup() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer removed = transactionTemplate.execute(status -> rollupRepository.deleteByBucketStartBefore(cutoff));
+        if (removed != null && removed > 0) {
+            log.info("Removidos {} buckets de rollup de atividades anteriores a {}", removed, cutoff);
+        }
+    }
+
+    private void merge(BucketKey key, Delta delta) {
+        ActivityRollup rollup = rollupRepository
+                .findByBucketStartAndNodeIdAndActivity(key.bucketStart(), nodeIdentity.getNodeId(), key.activity())
+                .orElseGet(() -> {
+                    ActivityRollup created = new ActivityRollup();
+                    created.setBucketStart(key.bucketStart());
+                    created.setNodeId(nodeIdentity.getNodeId());
+                    created.setActivity(key.activity());
+                    return created;
+                });
+
+        HyperLogLog users = HyperLogLog.fromBytes(rollup.getUserSketch());
+        synchronized (delta) {
+            rollup.setEventCount(rollup.getEventCount() + delta.count);
+            users.merge(delta.users);
+        }
+        rollup.setUserSketch(users.toBytes());
+        rollup.setUpdatedAt(LocalDateTime.now());
+        rollupRepository.save(rollup);
+    }
+
+    // Mesmo monitor de persist(): as linhas deste nó não são atualizadas em paralelo
+    private synchronized void persistBackfill(Map<BucketKey, Delta> counted) {
+        transactionTemplate.executeWithoutResult(status -> {
+            counted.forEach(this::merge);
+            // Claim retomado por outro nó: descarta para não contar duas vezes
+            if (backfillRepository.complete(ActivityRollupBackfill.SINGLETON_ID, nodeIdentity.getNodeId(), LocalDateTime.now()) == 0) {
+                status.setRollbackOnly();
+            }
+        });
+    }
+
+    private void restore(Map<BucketKey, Delta> snapshot) {
+        pendingLock.readLock().lock();
+        try {
+            snapshot.forEach((key, delta) -> pending.merge(key, delta, (current, failed) -> {
+                synchronized (current) {
+                    current.count += failed.count;
+                    current.users.merge(failed.users);
+                }
+                return current;
+            }));
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    private void accumulate(LocalDateTime bucketStart, String activity, long count, HyperLogLog users,
+                            Map<String, Long> countsByActivity, Map<String, Long> loginsByHour,
+                            HyperLogLog loginUsers) {
+        countsByActivity.merge(activity, count, Long::sum);
+
+        if (LOGIN_ACTIVITY.equals(activity)) {
+            loginsByHour.merge(String.valueOf(bucketStart.getHour()), count, Long::sum);
+            loginUsers.merge(users);
+        }
+    }
+}
@@ -64,6 +64,7 @@ public class AuthService {
                 .issuer("helps-platform")
                 .subject(user.getId().toString())
                 .claim("username", user.getUsername())
+                .claim("name", user.getName() != null ? user.getName() : user.getUsername())
                 .claim("roles", roles)
                 .claim("sessionId", sessionId)
                 .issuedAt(now)
@@ -0,0 +1,295 @@
+package com.helps.domain.service;
+
+import com.helps.dto.ChatMessageDto;
+import com.helps.dto.ChatMessageWriterMetricsDto;
+import com.helps.dto.MessageResponseDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistência assíncrona (group commit) das mensagens de chat. As mensagens são agrupadas
+ * por até chat.writer.linger-ms e gravadas em lotes JDBC, junto com os eventos de notificação
+ * no outbox, em uma única transação. Só depois do commit cada mensagem é difundida no tópico
+ * do ticket, já com o ID, na ordem de sequência; mensagens que falham não chegam aos clientes.
+ * O future devolvido por {@link #submit} conclui com o ID gerado após o commit, para quem
+ * precisa confirmar a gravação. Com a fila cheia a thread chamadora espera, aplicando
+ * contrapressão em vez de descartar mensagens.
+ */
+@Slf4j
+@Service
+public class ChatMessageWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO messages (ticket_id, sender_id, content, sent_date) VALUES (?, ?, ?, ?)";
+
+    public record Entry(
+            Long ticketId,
+            Long senderId,
+            String senderName,
+            String senderUsername,
+            String content,
+            LocalDateTime sentDate,
+            long sequence
+    ) {}
+
+    private record Pending(Entry entry, CompletableFuture<Long> persisted) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private RecentMessageBuffer recentMessageBuffer;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${chat.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.writer.batch-size:100}")
+    private int batchSize;
+
+    @Value("${chat.writer.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    @Value("${chat.writer.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${chat.writer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<Pending> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread drainThread;
+    private volatile boolean running;
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+
+        drainThread = new Thread(this::drainLoop, "chat-message-writer");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * Enfileira a mensagem; o future conclui com o ID da mensagem após o commit do lote.
+     */
+    public CompletableFuture<Long> submit(Entry entry) {
+        Pending pending = new Pending(entry, new CompletableFuture<>());
+        if (!running) {
+            write(List.of(pending));
+            return pending.persisted();
+        }
+
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write(List.of(pending));
+        }
+        return pending.persisted();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            drainThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+        log.info("Writer de mensagens de chat finalizado: {} gravadas, {} com falha", writtenCount.get(), failedCount.get());
+    }
+
+    public ChatMessageWriterMetricsDto getMetrics() {
+        return new ChatMessageWriterMetricsDto(
+                queue.size(),
+                writtenCount.get(),
+                batchCount.get(),
+                failedCount.get()
+        );
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                // Agrupa o que chegar na janela de espera; o lote cresce sozinho enquanto o anterior grava
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Erro no writer de mensagens de chat: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Entry> entries = batch.stream().map(Pending::entry).toList();
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> persist(entries));
+            writtenCount.addAndGet(batch.size());
+            batchCount.incrementAndGet();
+        } catch (Exception e) {
+            log.warn("Falha ao gravar lote de {} mensagens de chat, gravando individualmente: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(this::writeSingle);
+            return;
+        }
+
+        complete(batch, ids);
+        appendToBuffer(entries, ids);
+        broadcast(entries, ids);
+    }
+
+    private void writeSingle(Pending pending) {
+        Entry entry = pending.entry();
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> persist(List.of(entry)));
+            writtenCount.incrementAndGet();
+            complete(List.of(pending), ids);
+            appendToBuffer(List.of(entry), ids);
+            broadcast(List.of(entry), ids);
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            pending.persisted().completeExceptionally(e);
+            log.error("Mensagem de chat descartada: ticket={} sender={} sequence={}: {}",
+                    entry.ticketId(), entry.senderId(), entry.sequence(), e.getMessage());
+        }
+    }
+
+    private List<Long> persist(List<Entry> batch) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Entry entry = batch.get(i);
+                        ps.setLong(1, entry.ticketId());
+                        ps.setLong(2, entry.senderId());
+                        ps.setString(3, entry.content());
+                        ps.setTimestamp(4, Timestamp.valueOf(entry.sentDate()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keyHolder
+        );
+
+        for (Entry entry : batch) {
+            outboxService.enqueue(OutboxService.MESSAGE_RECEIVED, entry.ticketId(), Map.of(
+                    "senderId", entry.senderId(),
+                    "senderName", entry.senderName(),
+                    "summary", MessageService.summarizeContent(entry.content(), 50)));
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            Object id = keys.size() == 1 ? keys.values().iterator().next() : keys.get("id");
+            ids.add(id instanceof Number number ? number.longValue() : null);
+        }
+        return ids;
+    }
+
+    private void complete(List<Pending> batch, List<Long> ids) {
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).persisted().complete(i < ids.size() ? ids.get(i) : null);
+        }
+    }
+
+    private void appendToBuffer(List<Entry> batch, List<Long> ids) {
+        Map<Long, List<MessageResponseDto>> byTicket = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size() && i < ids.size(); i++) {
+            Entry entry = batch.get(i);
+            if (ids.get(i) == null) {
+                continue;
+            }
+            byTicket.computeIfAbsent(entry.ticketId(), key -> new ArrayList<>()).add(new MessageResponseDto(
+                    ids.get(i), entry.ticketId(), entry.senderId(), entry.senderName(), entry.senderUsername(),
+                    entry.content(), null, entry.sentDate()));
+        }
+        byTicket.forEach(recentMessageBuffer::append);
+    }
+
+    private void broadcast(List<Entry> batch, List<Long> ids) {
+        for (int i = 0; i < batch.size() && i < ids.size(); i++) {
+            Entry entry = batch.get(i);
+            webSocketService.sendChatMessage(new ChatMessageDto(
+                    "CHAT", entry.ticketId(), entry.senderId(), entry.senderName(), entry.content(),
+                    entry.sentDate(), entry.sequence(), ids.get(i)));
+        }
+    }
+}
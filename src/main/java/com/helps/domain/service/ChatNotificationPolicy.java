@@ -0,0 +1,161 @@
+package com.helps.domain.service;
+
+import com.helps.domain.model.PendingChatNotification;
+import com.helps.domain.repository.PendingChatNotificationRepository;
+import com.helps.domain.repository.TicketRepository;
+import com.helps.dto.SimpleUserDto;
+import com.helps.infra.websocket.WebSocketSessionRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Política de entrega das notificações de mensagens de chat.
+ * Quem está com a sala do ticket aberta já recebe a mensagem pelo tópico e não ganha
+ * notificação persistida; para os demais, as mensagens são agrupadas por (usuário, ticket)
+ * e viram uma única notificação após um período sem novas mensagens.
+ * O agrupamento fica na tabela pending_chat_notifications, gravada na mesma transação que
+ * processa o evento do outbox, então nada se perde se a aplicação reiniciar antes da entrega.
+ */
+@Slf4j
+@Service
+public class ChatNotificationPolicy {
+
+    private static final String NEW_MESSAGE_TYPE = "NEW_MESSAGE";
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private PendingChatNotificationRepository pendingRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    // Presença nas salas em todas as instâncias, não só nas sessões deste nó
+    @Autowired
+    private WebSocketSessionRegistry sessionRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${notification.chat.debounce-ms:10000}")
+    private long debounceMs;
+
+    @Value("${notification.chat.max-delay-ms:60000}")
+    private long maxDelayMs;
+
+    @Value("${notification.chat.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Decide, para o solicitante e o helper do ticket, se a mensagem gera notificação.
+     * Roda na transação do relay do outbox: o agrupamento é confirmado junto com o evento.
+     */
+    @Transactional
+    public void onMessageReceived(Long ticketId, Long senderId, String senderName, String summary) {
+        List<SimpleUserDto> participants = ticketRepository.findParticipants(ticketId);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (SimpleUserDto participant : participants) {
+            if (participant.id().equals(senderId)) {
+                continue;
+            }
+
+            if (sessionRegistry.isUserInRoom(participant.username(), ticketId)) {
+                log.debug("Usuário {} está na sala do ticket {}; notificação dispensada", participant.username(), ticketId);
+                continue;
+            }
+
+            // Inserções concorrentes do mesmo par violam a chave única; o outbox reprocessa o evento
+            PendingChatNotification entry = pendingRepository.findForUpdate(participant.id(), ticketId)
+                    .orElseGet(() -> newEntry(participant, ticketId, now));
+            entry.setMessageCount(entry.getMessageCount() + 1);
+            entry.setLastSenderName(senderName);
+            entry.setLastSummary(summary);
+            entry.setLastAt(now);
+            pendingRepository.save(entry);
+        }
+    }
+
+    /**
+     * Persiste as notificações agrupadas cuja janela de espera terminou.
+     */
+    @Scheduled(fixedDelayString = "${notification.chat.flush-interval-ms:1000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime debounceCutoff = now.minus(Duration.ofMillis(debounceMs));
+        LocalDateTime maxDelayCutoff = now.minus(Duration.ofMillis(maxDelayMs));
+
+        List<Long> dueIds = pendingRepository.findDueIds(debounceCutoff, maxDelayCutoff, PageRequest.of(0, flushBatchSize));
+        for (Long id : dueIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> deliver(id));
+            } catch (DataAccessException e) {
+                // Falha de banco: a entrada continua na tabela e volta no próximo ciclo
+                log.warn("Falha ao entregar notificação agrupada {}, nova tentativa no próximo ciclo: {}", id, e.getMessage());
+            } catch (Exception e) {
+                // Erro de dados (ex.: usuário excluído) não se resolve com nova tentativa
+                log.error("Notificação agrupada {} descartada: {}", id, e.getMessage());
+                discard(id);
+            }
+        }
+    }
+
+    private void deliver(Long id) {
+        PendingChatNotification entry = pendingRepository.findByIdForDelivery(id).orElse(null);
+        if (entry == null) {
+            // Já entregue ou em entrega por outra instância
+            return;
+        }
+
+        pendingRepository.delete(entry);
+
+        // Abriu a sala durante a espera: o histórico do chat já mostra as mensagens
+        if (sessionRegistry.isUserInRoom(entry.getUsername(), entry.getTicketId())) {
+            return;
+        }
+
+        String message = entry.getMessageCount() == 1
+                ? "Nova mensagem de " + entry.getLastSenderName() + ": " + entry.getLastSummary()
+                : entry.getMessageCount() + " novas mensagens no ticket #" + entry.getTicketId();
+
+        notificationService.createNotificationForUser(entry.getUserId(), message, NEW_MESSAGE_TYPE, entry.getTicketId());
+    }
+
+    private void discard(Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> pendingRepository.deleteById(id));
+        } catch (Exception e) {
+            log.warn("Falha ao descartar notificação agrupada {}: {}", id, e.getMessage());
+        }
+    }
+
+    private PendingChatNotification newEntry(SimpleUserDto participant, Long ticketId, LocalDateTime now) {
+        PendingChatNotification entry = new PendingChatNotification();
+        entry.setUserId(participant.id());
+        entry.setUsername(participant.username());
+        entry.setTicketId(ticketId);
+        entry.setFirstAt(now);
+        return entry;
+    }
+}
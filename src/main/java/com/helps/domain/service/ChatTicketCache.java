@@ -0,0 +1,96 @@
+package com.helps.domain.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.helps.domain.repository.MessageRepository;
+import com.helps.domain.repository.TicketRepository;
+import com.helps.dto.TicketChatInfoDto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Estado de chat por ticket mantido em memória para o caminho STOMP: participantes e
+ * status (para autorizar sem consultar o banco a cada mensagem) e a sequência das
+ * mensagens difundidas no tópico do ticket.
+ * A sequência é local à instância: serve para o remetente correlacionar a confirmação com o
+ * envio, mas não é única entre nós nem contínua. Ordenação, deduplicação e retomada do chat
+ * usam o ID da mensagem (messageId), que é atribuído pelo banco.
+ */
+@Service
+public class ChatTicketCache {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Value("${chat.ticket-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${chat.ticket-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${chat.sequence.idle-minutes:60}")
+    private long sequenceIdleMinutes;
+
+    private LoadingCache<Long, Optional<TicketChatInfoDto>> tickets;
+    private LoadingCache<Long, AtomicLong> sequences;
+
+    @PostConstruct
+    public void init() {
+        tickets = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build(ticketRepository::findChatInfo);
+
+        // Semeada com a quantidade de mensagens já gravadas na primeira mensagem do ticket.
+        // Sem limite de tamanho: só sai por ociosidade, quando não há mais envios do ticket na
+        // fila do writer, então a ressemeadura não repete números já entregues nesta instância
+        sequences = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(sequenceIdleMinutes))
+                .build(ticketId -> new AtomicLong(messageRepository.countByTicketId(ticketId)));
+    }
+
+    @Nullable
+    public TicketChatInfoDto get(Long ticketId) {
+        return tickets.get(ticketId).orElse(null);
+    }
+
+    /**
+     * Executa a ação com o próximo número de sequência do ticket nesta instância. As ações de
+     * um mesmo ticket são serializadas, de modo que a ordem de difusão local acompanha a sequência.
+     */
+    public <T> T withNextSequence(Long ticketId, LongFunction<T> action) {
+        AtomicLong sequence = sequences.get(ticketId);
+        synchronized (sequence) {
+            return action.apply(sequence.incrementAndGet());
+        }
+    }
+
+    /**
+     * Descarta os dados do ticket após o commit da transação corrente (ou imediatamente).
+     */
+    public void evict(Long ticketId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tickets.invalidate(ticketId);
+                }
+            });
+        } else {
+            tickets.invalidate(ticketId);
+        }
+    }
+}
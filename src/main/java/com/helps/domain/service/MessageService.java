@@ -5,8 +5,14 @@ import com.helps.domain.model.Message;
 import com.helps.domain.model.User;
 import com.helps.domain.repository.TicketRepository;
 import com.helps.domain.repository.MessageRepository;
+import com.helps.dto.CursorPageDto;
 import com.helps.dto.MessageDto;
+import com.helps.dto.MessageResponseDto;
+import com.helps.dto.TicketChatInfoDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,11 +21,17 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class MessageService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     @Autowired
     private MessageRepository messageRepository;
 
@@ -33,13 +45,22 @@ public class MessageService {
     private TicketAccessService ticketAccessService;
 
     @Autowired
-    private WebSocketService webSocketService;
+    private OutboxService outboxService;
 
     @Autowired
-    private NotificationService notificationService;
+    private FileStorageService fileStorageService;
 
     @Autowired
-    private FileStorageService fileStorageService;
+    private ChatTicketCache chatTicketCache;
+
+    @Autowired
+    private ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    private RecentMessageBuffer recentMessageBuffer;
+
+    @Value("${chat.message.max-length:2000}")
+    private int maxContentLength;
 
     public List<Message> listMessagesByTicket(Long ticketId) {
         Ticket ticket = ticketRepository.findById(ticketId)
@@ -53,32 +74,105 @@ public class MessageService {
         return messageRepository.findByTicketOrderBySentDateAsc(ticket);
     }
 
-    @Transactional
-    public Message sendMessage(Long ticketId, MessageDto messageDTO) {
-        User sender = userContextService.getCurrentUser();
+    /**
+     * Histórico incremental: as últimas mensagens, as anteriores a beforeId ou as posteriores
+     * a afterId (retomada após reconexão). O conteúdo vem sempre em ordem cronológica; o
+     * cursor é o ID da mensagem mais antiga (ou mais recente, com afterId) da página.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<MessageResponseDto> getMessageHistory(Long ticketId, Long beforeId, Long afterId, int limit) {
+        if (beforeId != null && afterId != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe apenas beforeId ou afterId");
+        }
 
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ticket not found"));
+        TicketChatInfoDto ticket = chatTicketCache.get(ticketId);
+        if (ticket == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ticket not found");
+        }
+        if (!ticketAccessService.canAccessTicket(ticket)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "You don't have permission to access the messages of this ticket");
+        }
 
-        ticketAccessService.verifyMessagePermission(ticket);
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        // Tickets em atendimento costumam ser atendidos pelo buffer em memória
+        List<MessageResponseDto> messages;
+        if (afterId != null) {
+            messages = recentMessageBuffer.after(ticketId, afterId, pageSize + 1)
+                    .orElseGet(() -> messageRepository.findByTicketIdAfter(ticketId, afterId, page));
+        } else if (beforeId != null) {
+            messages = recentMessageBuffer.before(ticketId, beforeId, pageSize + 1)
+                    .orElseGet(() -> messageRepository.findByTicketIdBefore(ticketId, beforeId, page));
+        } else {
+            messages = recentMessageBuffer.latest(ticketId, pageSize + 1)
+                    .orElseGet(() -> messageRepository.findLatestByTicketId(ticketId, page));
+        }
 
-        Message message = new Message();
-        message.setTicket(ticket);
-        message.setSender(sender);
-        message.setContent(messageDTO.content());
-        message.setSentDate(LocalDateTime.now());
+        boolean hasNext = messages.size() > pageSize;
+        List<MessageResponseDto> content = new ArrayList<>(hasNext ? messages.subList(0, pageSize) : messages);
+        if (afterId == null) {
+            Collections.reverse(content);
+        }
 
-        Message savedMessage = messageRepository.save(message);
+        String nextCursor = null;
+        if (hasNext) {
+            MessageResponseDto boundary = afterId != null ? content.get(content.size() - 1) : content.get(0);
+            nextCursor = boundary.getId().toString();
+        }
 
-        webSocketService.sendChatMessage(savedMessage);
+        return new CursorPageDto<>(content, nextCursor, hasNext);
+    }
 
-        String summarizedContent = summarizeContent(messageDTO.content(), 50);
-        notificationService.notifyMessageReceived(ticketId, sender.getId(), summarizedContent);
+    /**
+     * Mensagem aceita pelo caminho rápido, ainda sem ID; o future conclui com o ID quando o
+     * lote em que ela foi gravada é confirmado, e só então ela é difundida no tópico.
+     */
+    public record ChatSubmission(MessageResponseDto accepted, CompletableFuture<MessageResponseDto> persisted) {}
+
+    /**
+     * Caminho rápido do chat: autoriza pelo token e pelo cache do ticket, atribui o número de
+     * sequência e agenda a gravação em lote; o writer difunde a mensagem após o commit.
+     */
+    public ChatSubmission sendChatMessage(Long ticketId, String content) {
+        if (content == null || content.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Message content is required");
+        }
+        if (content.length() > maxContentLength) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Message content exceeds " + maxContentLength + " characters");
+        }
 
-        return savedMessage;
+        TicketChatInfoDto ticket = chatTicketCache.get(ticketId);
+        if (ticket == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ticket not found");
+        }
+
+        ticketAccessService.verifyMessagePermission(ticket);
+
+        Long senderId = userContextService.getCurrentUserId();
+        String senderName = userContextService.getCurrentDisplayName();
+        String senderUsername = userContextService.getCurrentUsername();
+        LocalDateTime sentDate = LocalDateTime.now();
+
+        return chatTicketCache.withNextSequence(ticketId, sequence -> {
+            // Enfileirado dentro da seção da sequência: o writer grava e difunde nessa ordem
+            CompletableFuture<MessageResponseDto> persisted = chatMessageWriter.submit(new ChatMessageWriter.Entry(
+                            ticketId, senderId, senderName, senderUsername, content, sentDate, sequence))
+                    .thenApply(id -> new MessageResponseDto(
+                            id, ticketId, senderId, senderName, senderUsername, content, null, sentDate, sequence));
+            MessageResponseDto accepted = new MessageResponseDto(
+                    null, ticketId, senderId, senderName, senderUsername, content, null, sentDate, sequence);
+            return new ChatSubmission(accepted, persisted);
+        });
+    }
+
+    private String displayName(User user) {
+        return user.getName() != null ? user.getName() : user.getUsername();
     }
 
-    private String summarizeContent(String content, int maxLength) {
+    static String summarizeContent(String content, int maxLength) {
         if (content == null) return "";
         if (content.length() <= maxLength) return content;
 
@@ -111,11 +205,14 @@ public class MessageService {
         }
 
         Message savedMessage = messageRepository.save(message);
+        recentMessageBuffer.appendAfterCommit(MessageResponseDto.fromEntity(savedMessage));
 
-        webSocketService.sendChatMessage(savedMessage);
+        outboxService.enqueue(OutboxService.CHAT_MESSAGE, ticketId,
+                Map.of("messageId", savedMessage.getId()));
 
         String summarizedContent = summarizeContent(messageDTO.content(), 50);
-        notificationService.notifyMessageReceived(ticketId, sender.getId(), summarizedContent);
+        outboxService.enqueue(OutboxService.MESSAGE_RECEIVED, ticketId,
+                Map.of("senderId", sender.getId(), "senderName", displayName(sender), "summary", summarizedContent));
 
         return savedMessage;
     }
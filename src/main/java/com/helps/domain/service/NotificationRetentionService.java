@@ -0,0 +1,84 @@
+package com.helps.domain.service;
+
+import com.helps.domain.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Remove notificações lidas mais antigas que o período de retenção, em lotes
+ * com transação própria para não segurar locks longos na tabela. Só o nó que
+ * obtém o lock do job executa a limpeza.
+ */
+@Slf4j
+@Service
+public class NotificationRetentionService {
+
+    private static final String LOCK_NAME = "notification-retention";
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${notification.retention.days:90}")
+    private int retentionDays;
+
+    @Value("${notification.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${notification.retention.lock-lease-minutes:30}")
+    private long lockLeaseMinutes;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${notification.retention.cron:0 30 3 * * *}")
+    public void purgeReadNotifications() {
+        if (!schedulerLockService.tryLock(LOCK_NAME, Duration.ofMinutes(lockLeaseMinutes))) {
+            log.debug("Limpeza de notificações lidas em execução em outro nó");
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+
+        try {
+            int deleted;
+            do {
+                Integer result = transactionTemplate.execute(status -> {
+                    List<Long> ids = notificationRepository.findReadIdsCreatedBefore(cutoff, PageRequest.of(0, chunkSize));
+                    return ids.isEmpty() ? 0 : notificationRepository.deleteByIdIn(ids);
+                });
+                deleted = result != null ? result : 0;
+                total += deleted;
+            } while (deleted == chunkSize);
+        } catch (Exception e) {
+            log.error("Erro na limpeza de notificações lidas: {}", e.getMessage());
+        } finally {
+            schedulerLockService.unlock(LOCK_NAME);
+        }
+
+        if (total > 0) {
+            log.info("Removidas {} notificações lidas anteriores a {}", total, cutoff);
+        }
+    }
+}
@@ -1,39 +1,83 @@
 package com.helps.domain.service;
 
+import com.helps.domain.event.TicketCreatedEvent;
 import com.helps.domain.model.Ticket;
 import com.helps.domain.model.Notification;
 import com.helps.domain.model.User;
-import com.helps.domain.repository.TicketRepository;
 import com.helps.domain.repository.NotificationRepository;
 import com.helps.domain.repository.UserRepository;
+import com.helps.dto.CursorPageDto;
+import com.helps.dto.KeysetCursor;
 import com.helps.dto.NotificationDto;
+import com.helps.dto.SimpleUserDto;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
+@Slf4j
 @Service
 public class NotificationService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final String NEW_TICKET_TYPE = "NEW_TICKET";
+    private static final Set<String> NEW_TICKET_ROLES = Set.of("HELPER", "ROLE_HELPER", "ADMIN", "ROLE_ADMIN");
+    private static final String INSERT_NOTIFICATION_SQL =
+            "INSERT INTO notifications (user_id, message, type, read, ticket_id, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private record Push(NotificationDto notification, String username) {}
+
     @Autowired
     private NotificationRepository notificationRepository;
 
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private TicketRepository ticketRepository;
-
     @Autowired
     private WebSocketService webSocketService;
 
     @Autowired
     private UserContextService userContextService;
 
+    @Autowired
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${notification.fanout.batch-size:500}")
+    private int fanOutBatchSize;
+
+    @Value("${notification.unread.max-results:100}")
+    private int maxUnreadResults;
+
     @Transactional
     public NotificationDto createNotificationForUser(Long userId, String message, String type, Long ticketId) {
         User user = userRepository.findById(userId)
@@ -48,100 +92,129 @@ public class NotificationService {
         notification.setCreatedAt(LocalDateTime.now());
 
         notification = notificationRepository.save(notification);
+        unreadNotificationCounter.increment(userId);
         NotificationDto notificationDto = convertToDto(notification);
 
-        webSocketService.sendNotification(notificationDto, user);
+        sendAfterCommit(List.of(new Push(notificationDto, user.getUsername())));
 
         return notificationDto;
     }
 
+    /**
+     * Publica o evento de novo ticket; o fan-out roda de forma assíncrona após o commit.
+     */
     public void notifyNewTickets(Ticket ticket) {
         User ticketCreator = ticket.getUser();
         Long ticketCreatorId = ticketCreator != null ? ticketCreator.getId() : null;
+        String creatorName = ticketCreator != null ?
+                (ticketCreator.getName() != null ? ticketCreator.getName() : ticketCreator.getUsername()) :
+                "Usuário";
 
-        List<User> usersToNotify = new ArrayList<>();
+        eventPublisher.publishEvent(new TicketCreatedEvent(
+                ticket.getId(), ticket.getTitle(), ticketCreatorId, creatorName));
+    }
 
+    /**
+     * Fan-out de novo ticket para helpers e admins: destinatários em uma consulta,
+     * inserts em lotes JDBC e envio por WebSocket fora da thread da requisição.
+     * Uma falha desfaz todos os lotes; os envios só acontecem após o commit.
+     */
+    @Async("notificationExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onTicketCreated(TicketCreatedEvent event) {
         try {
-            List<User> helpers = userRepository.findAll().stream()
-                    .filter(user -> user.isEnabled() && hasHelperRole(user))
-                    .collect(Collectors.toList());
-            usersToNotify.addAll(helpers);
-
-            List<User> admins = userRepository.findAll().stream()
-                    .filter(user -> user.isEnabled() && hasAdminRole(user))
-                    .collect(Collectors.toList());
-            usersToNotify.addAll(admins);
-
-            usersToNotify = usersToNotify.stream()
-                    .distinct()
-                    .collect(Collectors.toList());
-
-            if (ticketCreatorId != null) {
-                usersToNotify = usersToNotify.stream()
-                        .filter(user -> !user.getId().equals(ticketCreatorId))
-                        .collect(Collectors.toList());
+            List<SimpleUserDto> recipients = userRepository.findEnabledSummariesByRoleNames(NEW_TICKET_ROLES).stream()
+                    .filter(user -> !user.id().equals(event.creatorId()))
+                    .toList();
+
+            if (recipients.isEmpty()) {
+                return;
             }
 
-            for (User user : usersToNotify) {
-                try {
-                    String creatorName = ticketCreator != null ?
-                            (ticketCreator.getName() != null ? ticketCreator.getName() : ticketCreator.getUsername()) :
-                            "Usuário";
-
-                    createNotificationForUser(
-                            user.getId(),
-                            "Novo ticket criado por " + creatorName + ": " + ticket.getTitle(),
-                            "NEW_TICKET",
-                            ticket.getId()
+            String message = "Novo ticket criado por " + event.creatorName() + ": " + event.title();
+            LocalDateTime createdAt = LocalDateTime.now();
+            List<Push> pushes = new ArrayList<>(recipients.size());
+
+            for (int from = 0; from < recipients.size(); from += fanOutBatchSize) {
+                List<SimpleUserDto> batch = recipients.subList(from, Math.min(from + fanOutBatchSize, recipients.size()));
+                List<Long> ids = insertBatch(batch, message, NEW_TICKET_TYPE, event.ticketId(), createdAt);
+                batch.forEach(recipient -> unreadNotificationCounter.increment(recipient.id()));
+
+                for (int i = 0; i < batch.size(); i++) {
+                    NotificationDto dto = new NotificationDto(
+                            i < ids.size() ? ids.get(i) : null,
+                            message,
+                            NEW_TICKET_TYPE,
+                            false,
+                            event.ticketId(),
+                            createdAt
                     );
-                } catch (Exception e) {
-                    System.err.println("Erro ao enviar notificação para " + user.getUsername() + ": " + e.getMessage());
+                    pushes.add(new Push(dto, batch.get(i).username()));
                 }
             }
-        } catch (Exception e) {
-            System.err.println("Erro ao processar notificações de novo ticket: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
 
-    private boolean hasAdminRole(User user) {
-        return user.getRoles().stream()
-                .anyMatch(role -> role.getName().equalsIgnoreCase("ADMIN") ||
-                        role.getName().equalsIgnoreCase("ROLE_ADMIN"));
+            sendAfterCommit(pushes);
+            log.debug("Ticket #{} notificado para {} usuários", event.ticketId(), recipients.size());
+        } catch (RuntimeException e) {
+            log.error("Erro ao processar notificações de novo ticket #{}: {}", event.ticketId(), e.getMessage());
+            throw e;
+        }
     }
 
-    private boolean hasHelperRole(User user) {
-        return user.getRoles().stream()
-                .anyMatch(role -> role.getName().equalsIgnoreCase("HELPER") ||
-                        role.getName().equalsIgnoreCase("ROLE_HELPER"));
+    /**
+     * Envia as notificações por WebSocket após o commit, para que o cliente nunca
+     * receba IDs de notificações desfeitas por rollback.
+     */
+    private void sendAfterCommit(List<Push> pushes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pushes.forEach(push -> webSocketService.sendNotification(push.notification(), push.username()));
+                }
+            });
+        } else {
+            pushes.forEach(push -> webSocketService.sendNotification(push.notification(), push.username()));
+        }
     }
 
-    public void notifyMessageReceived(Long ticketId, Long senderId, String summarizedContent) {
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new RuntimeException("Ticket not found"));
-
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        String senderName = sender.getName() != null ? sender.getName() : sender.getUsername();
-
-        if (ticket.getUser() != null && !ticket.getUser().getId().equals(senderId)) {
-            createNotificationForUser(
-                    ticket.getUser().getId(),
-                    "Nova mensagem de " + senderName + ": " + summarizedContent,
-                    "NEW_MESSAGE",
-                    ticketId
-            );
-        }
+    private List<Long> insertBatch(List<SimpleUserDto> recipients, String message, String type,
+                                   Long ticketId, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_NOTIFICATION_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, recipients.get(i).id());
+                        ps.setString(2, message);
+                        ps.setString(3, type);
+                        ps.setBoolean(4, false);
+                        if (ticketId != null) {
+                            ps.setLong(5, ticketId);
+                        } else {
+                            ps.setNull(5, Types.BIGINT);
+                        }
+                        ps.setTimestamp(6, timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return recipients.size();
+                    }
+                },
+                keyHolder
+        );
 
-        if (ticket.getHelper() != null && !ticket.getHelper().getId().equals(senderId)) {
-            createNotificationForUser(
-                    ticket.getHelper().getId(),
-                    "Nova mensagem de " + senderName + ": " + summarizedContent,
-                    "NEW_MESSAGE",
-                    ticketId
-            );
+        List<Long> ids = new ArrayList<>(recipients.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            Object id = keys.size() == 1 ? keys.values().iterator().next() : keys.get("id");
+            ids.add(id instanceof Number number ? number.longValue() : null);
         }
+        return ids;
     }
 
     public void notifyTicketAssigned(Ticket ticket, User helper) {
@@ -178,15 +251,50 @@ public class NotificationService {
         }
     }
 
-    @Transactional
+    public int getUnreadCount(Long userId) {
+        return unreadNotificationCounter.get(userId);
+    }
+
+    /**
+     * Notificações não lidas mais recentes, limitadas a notification.unread.max-results.
+     */
+    @Transactional(readOnly = true)
     public List<NotificationDto> getUnreadNotifications(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return notificationRepository.findPageByUserId(userId, true, PageRequest.of(0, maxUnreadResults));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<NotificationDto> getNotificationsWithCursor(Long userId, String cursor, int size, boolean unreadOnly) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<NotificationDto> notifications;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = decodeCursor(cursor);
+            notifications = notificationRepository.findPageByUserIdBefore(
+                    userId, unreadOnly, position.timestamp(), position.id(), limit);
+        } else {
+            notifications = notificationRepository.findPageByUserId(userId, unreadOnly, limit);
+        }
+
+        boolean hasNext = notifications.size() > pageSize;
+        List<NotificationDto> content = hasNext ? notifications.subList(0, pageSize) : notifications;
+
+        String nextCursor = null;
+        if (hasNext) {
+            NotificationDto last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.createdAt(), last.id()).encode();
+        }
 
-        return notificationRepository.findByUserAndReadFalseOrderByCreatedAtDesc(user)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return new CursorPageDto<>(content, nextCursor, hasNext);
+    }
+
+    private KeysetCursor decodeCursor(String cursor) {
+        try {
+            return KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
     }
 
     @Transactional
@@ -194,20 +302,36 @@ public class NotificationService {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
 
-        notification.setRead(true);
-        notification = notificationRepository.save(notification);
+        if (!notification.isRead()) {
+            notification.setRead(true);
+            notification = notificationRepository.save(notification);
+            unreadNotificationCounter.decrement(notification.getUser().getId(), 1);
+        }
 
         return convertToDto(notification);
     }
 
     @Transactional
-    public void markAllAsRead(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllReadByUserId(userId);
+        unreadNotificationCounter.reset(userId);
+        return updated;
+    }
+
+    /**
+     * Marca como lidas, em um único UPDATE, as notificações do usuário até o ID
+     * e/ou até a data informados (ambos informados: aplica os dois limites).
+     */
+    @Transactional
+    public int markReadUpTo(Long userId, Long upToId, LocalDateTime upTo) {
+        if (upToId == null && upTo == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe upToId ou upTo");
+        }
+
+        int updated = notificationRepository.markReadByUserIdUpTo(userId, upToId, upTo);
 
-        List<Notification> notifications = notificationRepository.findByUserAndReadFalse(user);
-        notifications.forEach(notification -> notification.setRead(true));
-        notificationRepository.saveAll(notifications);
+        unreadNotificationCounter.decrement(userId, updated);
+        return updated;
     }
 
     private NotificationDto convertToDto(Notification notification) {
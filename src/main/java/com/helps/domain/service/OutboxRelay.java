@@ -0,0 +1,277 @@
+package com.helps.domain.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helps.domain.model.Message;
+import com.helps.domain.model.OutboxEvent;
+import com.helps.domain.model.Ticket;
+import com.helps.domain.model.User;
+import com.helps.domain.repository.MessageRepository;
+import com.helps.domain.repository.OutboxEventRepository;
+import com.helps.domain.repository.TicketRepository;
+import com.helps.domain.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entrega em lotes os eventos gravados pelo {@link OutboxService}.
+ * Cada lote é reservado com FOR UPDATE SKIP LOCKED; cada evento roda em transação
+ * própria, de modo que uma falha não desfaz os demais.
+ */
+@Slf4j
+@Service
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ChatNotificationPolicy chatNotificationPolicy;
+
+    @Autowired
+    private ChatTicketCache chatTicketCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("notificationExecutor")
+    private Executor notificationExecutor;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention-hours:24}")
+    private int retentionHours;
+
+    private TransactionTemplate claimTransaction;
+    private TransactionTemplate handlerTransaction;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean(false);
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong lastLagMs = new AtomicLong(-1);
+    private final AtomicLong maxLagMs = new AtomicLong(-1);
+
+    @PostConstruct
+    public void init() {
+        claimTransaction = new TransactionTemplate(transactionManager);
+        handlerTransaction = new TransactionTemplate(transactionManager);
+        handlerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Chamado após o commit de uma transação que gravou eventos.
+     */
+    public void requestDispatch() {
+        dispatchRequested.set(true);
+        try {
+            notificationExecutor.execute(this::relay);
+        } catch (RejectedExecutionException e) {
+            log.debug("Relay do outbox adiado para o próximo ciclo agendado");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:2000}")
+    public void relay() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            do {
+                dispatchRequested.set(false);
+                int completed;
+                do {
+                    Integer result = claimTransaction.execute(status -> dispatchBatch());
+                    completed = result != null ? result : 0;
+                } while (completed == batchSize);
+            } while (dispatchRequested.get());
+        } catch (Exception e) {
+            log.error("Erro no relay do outbox: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Scheduled(cron = "${outbox.cleanup.cron:0 15 * * * *}")
+    public void cleanupDispatched() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer removed = claimTransaction.execute(status -> outboxEventRepository.deleteDispatchedBefore(cutoff));
+        if (removed != null && removed > 0) {
+            log.info("Removidos {} eventos entregues do outbox", removed);
+        }
+    }
+
+    /**
+     * Processa um lote reservado e retorna quantos eventos foram finalizados
+     * (entregues ou descartados após o limite de tentativas).
+     */
+    private int dispatchBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findPendingForDispatch(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> completedIds = new ArrayList<>(events.size());
+
+        for (OutboxEvent event : events) {
+            try {
+                handlerTransaction.executeWithoutResult(status -> dispatch(event));
+                completedIds.add(event.getId());
+                dispatchedCount.incrementAndGet();
+                recordLag(event);
+            } catch (Exception e) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(truncate(e.getMessage()));
+
+                if (event.getAttempts() >= maxAttempts) {
+                    completedIds.add(event.getId());
+                    failedCount.incrementAndGet();
+                    log.error("Evento de outbox {} ({}) descartado após {} tentativas: {}",
+                            event.getId(), event.getEventType(), event.getAttempts(), e.getMessage());
+                } else {
+                    log.warn("Falha ao entregar evento de outbox {} ({}), tentativa {}: {}",
+                            event.getId(), event.getEventType(), event.getAttempts(), e.getMessage());
+                }
+            }
+        }
+
+        if (!completedIds.isEmpty()) {
+            outboxEventRepository.markDispatched(completedIds, LocalDateTime.now());
+        }
+
+        return completedIds.size();
+    }
+
+    private void dispatch(OutboxEvent event) {
+        JsonNode payload = readPayload(event);
+
+        switch (event.getEventType()) {
+            case OutboxService.TICKET_STATUS -> webSocketService.notifyTicketStatus(
+                    findTicket(event.getAggregateId()), payload.path("message").asText());
+            case OutboxService.TICKET_ASSIGNED -> notificationService.notifyTicketAssigned(
+                    findTicket(event.getAggregateId()), findUser(payload.path("userId").asLong()));
+            case OutboxService.TICKET_CLOSED -> notificationService.notifyTicketClosed(
+                    findTicket(event.getAggregateId()), findUser(payload.path("userId").asLong()));
+            case OutboxService.CHAT_MESSAGE -> {
+                Message message = findMessage(payload.path("messageId").asLong());
+                chatTicketCache.withNextSequence(event.getAggregateId(), sequence -> {
+                    webSocketService.sendChatMessage(message, sequence);
+                    return null;
+                });
+            }
+            case OutboxService.MESSAGE_RECEIVED -> chatNotificationPolicy.onMessageReceived(
+                    event.getAggregateId(), payload.path("senderId").asLong(),
+                    senderName(payload), payload.path("summary").asText());
+            default -> log.warn("Tipo de evento de outbox desconhecido: {}", event.getEventType());
+        }
+    }
+
+    private JsonNode readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readTree(event.getPayload());
+        } catch (Exception e) {
+            throw new IllegalStateException("Payload ilegível no evento " + event.getId(), e);
+        }
+    }
+
+    // Eventos gravados antes de o nome do remetente entrar no payload
+    private String senderName(JsonNode payload) {
+        if (payload.hasNonNull("senderName")) {
+            return payload.get("senderName").asText();
+        }
+
+        User sender = findUser(payload.path("senderId").asLong());
+        return sender.getName() != null ? sender.getName() : sender.getUsername();
+    }
+
+    private Ticket findTicket(Long ticketId) {
+        return ticketRepository.findById(ticketId)
+                .orElseThrow(() -> new IllegalStateException("Ticket não encontrado: " + ticketId));
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalStateException("Usuário não encontrado: " + userId));
+    }
+
+    private Message findMessage(Long messageId) {
+        return messageRepository.findById(messageId)
+                .orElseThrow(() -> new IllegalStateException("Mensagem não encontrada: " + messageId));
+    }
+
+    private void recordLag(OutboxEvent event) {
+        long lag = Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis();
+        lastLagMs.set(lag);
+        maxLagMs.accumulateAndGet(lag, Math::max);
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public Long getLastLagMs() {
+        long lag = lastLagMs.get();
+        return lag >= 0 ? lag : null;
+    }
+
+    public Long getMaxLagMs() {
+        long lag = maxLagMs.get();
+        return lag >= 0 ? lag : null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.helps.domain.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helps.domain.model.OutboxEvent;
+import com.helps.domain.repository.OutboxEventRepository;
+import com.helps.dto.OutboxMetricsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Outbox transacional: efeitos colaterais (WebSocket e notificações) são gravados
+ * na mesma transação da alteração e entregues pelo {@link OutboxRelay} após o commit.
+ */
+@Service
+public class OutboxService {
+
+    public static final String TICKET_STATUS = "TICKET_STATUS";
+    public static final String TICKET_ASSIGNED = "TICKET_ASSIGNED";
+    public static final String TICKET_CLOSED = "TICKET_CLOSED";
+    public static final String CHAT_MESSAGE = "CHAT_MESSAGE";
+    public static final String MESSAGE_RECEIVED = "MESSAGE_RECEIVED";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Grava o evento na transação corrente. Após o commit o relay é acordado
+     * para entregar sem esperar o próximo ciclo agendado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String eventType, Long aggregateId, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setPayload(serialize(payload));
+        event.setCreatedAt(LocalDateTime.now());
+        event.setAttempts(0);
+        outboxEventRepository.save(event);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.requestDispatch();
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public OutboxMetricsDto getMetrics() {
+        long backlog = outboxEventRepository.countByDispatchedAtIsNull();
+        LocalDateTime oldestPending = backlog > 0 ? outboxEventRepository.findOldestPendingCreatedAt() : null;
+        Long oldestPendingAgeMs = oldestPending != null ?
+                Duration.between(oldestPending, LocalDateTime.now()).toMillis() : null;
+
+        return new OutboxMetricsDto(
+                backlog,
+                oldestPendingAgeMs,
+                outboxRelay.getDispatchedCount(),
+                outboxRelay.getFailedCount(),
+                outboxRelay.getLastLagMs(),
+                outboxRelay.getMaxLagMs()
+        );
+    }
+
+    private String serialize(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload de outbox inválido", e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.helps.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.helps.domain.repository.MessageRepository;
+import com.helps.dto.MessageResponseDto;
+import com.helps.dto.TicketChatInfoDto;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Últimas mensagens de cada ticket em atendimento, mantidas em memória para servir a
+ * retomada do chat após reconexão sem consultar o banco. O buffer de um ticket é semeado
+ * com as mensagens mais recentes do banco no primeiro uso e depois recebe cada mensagem
+ * gravada; sai da memória quando o ticket deixa de estar em atendimento ou fica ocioso.
+ * Uma leitura só é atendida pelo buffer quando ele cobre todo o intervalo pedido.
+ * O buffer só vê as mensagens gravadas nesta instância; com broker relay (várias instâncias)
+ * ele fica desligado e todas as leituras vão ao banco, para a retomada não omitir mensagens
+ * gravadas em outro nó.
+ */
+@Slf4j
+@Service
+public class RecentMessageBuffer {
+
+    private static final String ACTIVE_STATUS = "EM_ATENDIMENTO";
+    private static final String BROKER_MODE_RELAY = "relay";
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ChatTicketCache chatTicketCache;
+
+    @Value("${chat.buffer.capacity:200}")
+    private int capacity;
+
+    @Value("${chat.buffer.idle-minutes:30}")
+    private long idleMinutes;
+
+    @Value("${chat.buffer.max-tickets:1000}")
+    private long maxTickets;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    private Cache<Long, TicketBuffer> buffers;
+    private boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        enabled = !BROKER_MODE_RELAY.equalsIgnoreCase(brokerMode);
+        if (!enabled) {
+            log.info("Buffer de mensagens recentes desligado: broker em modo relay (várias instâncias)");
+        }
+        buffers = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .maximumSize(maxTickets)
+                .build();
+    }
+
+    /**
+     * Acrescenta mensagens gravadas; chamar somente após o commit.
+     */
+    public void append(Long ticketId, Collection<MessageResponseDto> messages) {
+        try {
+            TicketBuffer buffer = bufferFor(ticketId);
+            if (buffer != null) {
+                buffer.addAll(messages);
+            }
+        } catch (Exception e) {
+            // Sem o buffer as leituras seguem pelo banco; a mensagem já está gravada
+            buffers.invalidate(ticketId);
+            log.warn("Falha ao atualizar buffer de mensagens do ticket {}: {}", ticketId, e.getMessage());
+        }
+    }
+
+    /**
+     * Acrescenta a mensagem após o commit da transação corrente (ou imediatamente).
+     */
+    public void appendAfterCommit(MessageResponseDto message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(message.getTicketId(), List.of(message));
+                }
+            });
+        } else {
+            append(message.getTicketId(), List.of(message));
+        }
+    }
+
+    public Optional<List<MessageResponseDto>> latest(Long ticketId, int limit) {
+        TicketBuffer buffer = bufferFor(ticketId);
+        return buffer != null ? buffer.latest(limit) : Optional.empty();
+    }
+
+    public Optional<List<MessageResponseDto>> before(Long ticketId, Long beforeId, int limit) {
+        TicketBuffer buffer = bufferFor(ticketId);
+        return buffer != null ? buffer.before(beforeId, limit) : Optional.empty();
+    }
+
+    public Optional<List<MessageResponseDto>> after(Long ticketId, Long afterId, int limit) {
+        TicketBuffer buffer = bufferFor(ticketId);
+        return buffer != null ? buffer.after(afterId, limit) : Optional.empty();
+    }
+
+    /**
+     * Descarta o buffer após o commit da transação corrente (ou imediatamente).
+     */
+    public void evict(Long ticketId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffers.invalidate(ticketId);
+                }
+            });
+        } else {
+            buffers.invalidate(ticketId);
+        }
+    }
+
+    // A semeadura bloqueia outros acessos ao mesmo ticket, então nenhuma mensagem
+    // confirmada durante a consulta fica de fora do buffer
+    private TicketBuffer bufferFor(Long ticketId) {
+        if (!enabled) {
+            return null;
+        }
+
+        TicketChatInfoDto ticket = chatTicketCache.get(ticketId);
+        if (ticket == null || !ACTIVE_STATUS.equals(ticket.status())) {
+            buffers.invalidate(ticketId);
+            return null;
+        }
+
+        return buffers.get(ticketId, this::seed);
+    }
+
+    private TicketBuffer seed(Long ticketId) {
+        List<MessageResponseDto> latest = messageRepository.findLatestByTicketId(ticketId, PageRequest.of(0, capacity));
+        TicketBuffer buffer = new TicketBuffer(capacity, latest.size() < capacity);
+        buffer.addAll(latest);
+        return buffer;
+    }
+
+    private static final class TicketBuffer {
+
+        private final int capacity;
+        private final TreeMap<Long, MessageResponseDto> messages = new TreeMap<>();
+        // Verdadeiro enquanto o buffer contém todo o histórico do ticket
+        private boolean complete;
+
+        TicketBuffer(int capacity, boolean complete) {
+            this.capacity = capacity;
+            this.complete = complete;
+        }
+
+        synchronized void addAll(Collection<MessageResponseDto> batch) {
+            for (MessageResponseDto message : batch) {
+                messages.put(message.getId(), message);
+            }
+            while (messages.size() > capacity) {
+                messages.pollFirstEntry();
+                complete = false;
+            }
+        }
+
+        synchronized Optional<List<MessageResponseDto>> latest(int limit) {
+            if (!complete && messages.size() < limit) {
+                return Optional.empty();
+            }
+            return Optional.of(take(messages.descendingMap(), limit));
+        }
+
+        synchronized Optional<List<MessageResponseDto>> before(Long beforeId, int limit) {
+            if (!messages.containsKey(beforeId)) {
+                return Optional.empty();
+            }
+
+            NavigableMap<Long, MessageResponseDto> older = messages.headMap(beforeId, false);
+            if (!complete && older.size() < limit) {
+                return Optional.empty();
+            }
+            return Optional.of(take(older.descendingMap(), limit));
+        }
+
+        synchronized Optional<List<MessageResponseDto>> after(Long afterId, int limit) {
+            if (messages.isEmpty() || afterId < messages.firstKey()
+                    || (!complete && !messages.containsKey(afterId))) {
+                return Optional.empty();
+            }
+            return Optional.of(take(messages.tailMap(afterId, false), limit));
+        }
+
+        private static List<MessageResponseDto> take(Map<Long, MessageResponseDto> source, int limit) {
+            List<MessageResponseDto> result = new ArrayList<>(Math.min(limit, source.size()));
+            for (MessageResponseDto message : source.values()) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(message);
+            }
+            return result;
+        }
+    }
+}
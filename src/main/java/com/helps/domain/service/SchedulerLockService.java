@@ -0,0 +1,71 @@
+package com.helps.domain.service;
+
+import com.helps.domain.repository.SchedulerLockRepository;
+import com.helps.infra.config.NodeIdentity;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Locks de jobs agendados em tabela, para que só um nó do cluster execute cada job.
+ * O lease limita quanto tempo um nó que caiu segura o lock.
+ */
+@Slf4j
+@Service
+public class SchedulerLockService {
+
+    @Autowired
+    private SchedulerLockRepository lockRepository;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Tenta obter o lock por {@code lease}; retorna false se outro nó o detém.
+     */
+    public boolean tryLock(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Integer acquired = transactionTemplate.execute(status ->
+                    lockRepository.acquire(name, nodeIdentity.getNodeId(), now, now.plus(lease)));
+            if (acquired != null && acquired > 0) {
+                return true;
+            }
+            if (lockRepository.existsById(name)) {
+                return false;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    lockRepository.insertLock(name, now.plus(lease), nodeIdentity.getNodeId()));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Lock {} criado por outro nó", name);
+            return false;
+        }
+    }
+
+    public void unlock(String name) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    lockRepository.release(name, nodeIdentity.getNodeId(), LocalDateTime.now()));
+        } catch (Exception e) {
+            log.warn("Falha ao liberar lock {}: {}", name, e.getMessage());
+        }
+    }
+}
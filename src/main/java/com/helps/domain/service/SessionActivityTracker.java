@@ -0,0 +1,72 @@
+package com.helps.domain.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind do lastActivity das sessões: cada requisição só atualiza um mapa em
+ * memória por sessionId, e um UPDATE em lote periódico grava o último acesso de cada
+ * sessão. O volume de escrita acompanha o número de sessões ativas, não de requisições.
+ */
+@Slf4j
+@Service
+public class SessionActivityTracker {
+
+    private static final String UPDATE_SQL = "UPDATE user_sessions SET last_activity = ? " +
+            "WHERE session_id = ? AND is_active = true AND (last_activity IS NULL OR last_activity < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${session.touch.batch-size:500}")
+    private int batchSize;
+
+    private final ConcurrentHashMap<String, LocalDateTime> lastSeen = new ConcurrentHashMap<>();
+
+    public void touch(String sessionId, LocalDateTime at) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return;
+        }
+        lastSeen.merge(sessionId, at, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    @Scheduled(fixedDelayString = "${session.touch.flush-interval-ms:30000}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (lastSeen.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, LocalDateTime>> pending = new ArrayList<>(lastSeen.size());
+        lastSeen.forEach((sessionId, at) -> pending.add(Map.entry(sessionId, at)));
+
+        try {
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<Map.Entry<String, LocalDateTime>> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+                    Timestamp timestamp = Timestamp.valueOf(entry.getValue());
+                    ps.setTimestamp(1, timestamp);
+                    ps.setString(2, entry.getKey());
+                    ps.setTimestamp(3, timestamp);
+                });
+
+                // Remove só se não houve novo acesso durante o flush
+                batch.forEach(entry -> lastSeen.remove(entry.getKey(), entry.getValue()));
+            }
+        } catch (Exception e) {
+            log.error("Falha ao gravar lastActivity de {} sessões: {}", pending.size(), e.getMessage());
+        }
+    }
+}
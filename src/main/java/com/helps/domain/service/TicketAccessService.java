@@ -1,12 +1,16 @@
 package com.helps.domain.service;
 
 import com.helps.domain.model.Ticket;
-import com.helps.domain.model.User;
+import com.helps.dto.TicketChatInfoDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+/**
+ * Regras de acesso a tickets. As decisões usam apenas as authorities e o subject
+ * do token autenticado, sem consultas JPA.
+ */
 @Service
 public class TicketAccessService {
 
@@ -14,23 +18,32 @@ public class TicketAccessService {
     private UserContextService userContextService;
 
     public boolean canAccessTicket(Ticket ticket) {
-        User currentUser = userContextService.getCurrentUser();
+        return canAccessTicket(
+                ticket.getUser() != null ? ticket.getUser().getId() : null,
+                ticket.getHelper() != null ? ticket.getHelper().getId() : null,
+                ticket.getStatus());
+    }
+
+    public boolean canAccessTicket(TicketChatInfoDto ticket) {
+        return canAccessTicket(ticket.requesterId(), ticket.helperId(), ticket.status());
+    }
 
+    private boolean canAccessTicket(Long requesterId, Long helperId, String status) {
         if (userContextService.hasAnyRole("ADMIN", "HELPER")) {
             return true;
         }
 
-        if (ticket.getUser() != null &&
-                ticket.getUser().getId().equals(currentUser.getId())) {
+        Long currentUserId = userContextService.getCurrentUserId();
+
+        if (currentUserId.equals(requesterId)) {
             return true;
         }
 
-        if (ticket.getHelper() != null &&
-                ticket.getHelper().getId().equals(currentUser.getId())) {
+        if (currentUserId.equals(helperId)) {
             return true;
         }
 
-        if ("OPEN".equals(ticket.getStatus()) &&
+        if ("OPEN".equals(status) &&
                 userContextService.hasRole("HELPER")) {
             return true;
         }
@@ -51,14 +64,14 @@ public class TicketAccessService {
     }
 
     public void verifyCloseTicketPermission(Ticket ticket) {
-        User currentUser = userContextService.getCurrentUser();
-
         if (userContextService.hasAnyRole("ADMIN", "HELPER")) {
             return;
         }
 
+        Long currentUserId = userContextService.getCurrentUserId();
+
         if (ticket.getHelper() == null ||
-                !ticket.getHelper().getId().equals(currentUser.getId())) {
+                !ticket.getHelper().getId().equals(currentUserId)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                     "Only the assigned helper can close this ticket");
         }
@@ -70,26 +83,34 @@ public class TicketAccessService {
     }
 
     public void verifyMessagePermission(Ticket ticket) {
-        User currentUser = userContextService.getCurrentUser();
+        verifyMessagePermission(
+                ticket.getUser() != null ? ticket.getUser().getId() : null,
+                ticket.getHelper() != null ? ticket.getHelper().getId() : null,
+                ticket.getStatus());
+    }
 
+    public void verifyMessagePermission(TicketChatInfoDto ticket) {
+        verifyMessagePermission(ticket.requesterId(), ticket.helperId(), ticket.status());
+    }
+
+    private void verifyMessagePermission(Long requesterId, Long helperId, String status) {
         if (userContextService.hasAnyRole("ADMIN","HELPER")) {
             return;
         }
 
-        boolean isRequester = ticket.getUser() != null &&
-                currentUser.getId().equals(ticket.getUser().getId());
+        Long currentUserId = userContextService.getCurrentUserId();
 
-        boolean isHelper = ticket.getHelper() != null &&
-                currentUser.getId().equals(ticket.getHelper().getId());
+        boolean isRequester = currentUserId.equals(requesterId);
+        boolean isHelper = currentUserId.equals(helperId);
 
         if (!isRequester && !isHelper) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                     "You don't have permission to send messages in this ticket");
         }
 
-        if (!"EM_ATENDIMENTO".equals(ticket.getStatus())) {
+        if (!"EM_ATENDIMENTO".equals(status)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "Cannot send messages to a ticket that is not in progress");
         }
     }
-}
\ No newline at end of file
+}
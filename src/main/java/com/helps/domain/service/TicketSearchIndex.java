@@ -0,0 +1,212 @@
+package com.helps.domain.service;
+
+import com.helps.domain.model.Ticket;
+import com.helps.domain.repository.TicketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido em memória para busca textual em título e descrição dos tickets.
+ * Substitui o LIKE '%termo%' (que sempre faz varredura sequencial) por lookup de termos
+ * com ranking por relevância.
+ */
+@Slf4j
+@Service
+public class TicketSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "de", "da", "do", "das", "dos", "em", "no", "na", "nos", "nas",
+            "um", "uma", "para", "por", "com", "os", "as", "ao", "que", "se"
+    );
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    private volatile InvertedIndex active = new InvertedIndex();
+    private volatile InvertedIndex building;
+
+    /**
+     * Reconstrói o índice a partir do banco na subida e periodicamente,
+     * para incorporar alterações feitas por outras instâncias.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.index.rebuild-interval-ms:900000}",
+            initialDelayString = "${search.index.rebuild-interval-ms:900000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        InvertedIndex fresh = new InvertedIndex();
+        building = fresh;
+
+        try (Stream<Object[]> rows = ticketRepository.streamSearchableFields()) {
+            rows.forEach(row -> fresh.index((Long) row[0], (String) row[1], (String) row[2]));
+            active = fresh;
+            log.info("Índice de busca de tickets reconstruído: {} documentos em {} ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Falha ao reconstruir índice de busca de tickets: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Indexa o ticket após o commit da transação corrente (ou imediatamente, se não houver).
+     */
+    public void index(Ticket ticket) {
+        Long id = ticket.getId();
+        String title = ticket.getTitle();
+        String description = ticket.getDescription();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyIndex(id, title, description);
+                }
+            });
+        } else {
+            applyIndex(id, title, description);
+        }
+    }
+
+    /**
+     * Retorna os IDs dos tickets que contêm todos os termos da consulta,
+     * ordenados por relevância (maior primeiro).
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return active.search(new ArrayList<>(new HashSet<>(terms)), limit);
+    }
+
+    private void applyIndex(Long id, String title, String description) {
+        active.index(id, title, description);
+
+        InvertedIndex pending = building;
+        if (pending != null) {
+            pending.index(id, title, description);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (token.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static class InvertedIndex {
+
+        // termo -> (ticketId -> peso do termo no ticket)
+        private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+
+        // ticketId -> termos indexados, para remover entradas antigas em atualizações
+        private final ConcurrentHashMap<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+
+        synchronized void index(Long id, String title, String description) {
+            remove(id);
+
+            Map<String, Integer> weights = new HashMap<>();
+            tokenize(title).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+            tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+            weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(id, weight));
+            documentTerms.put(id, weights.keySet());
+        }
+
+        private void remove(Long id) {
+            Set<String> terms = documentTerms.remove(id);
+            if (terms == null) {
+                return;
+            }
+
+            for (String term : terms) {
+                postings.computeIfPresent(term, (key, documents) -> {
+                    documents.remove(id);
+                    return documents.isEmpty() ? null : documents;
+                });
+            }
+        }
+
+        List<Long> search(List<String> terms, int limit) {
+            int totalDocuments = Math.max(documentTerms.size(), 1);
+            Map<Long, Double> scores = new HashMap<>();
+            Map<Long, Integer> matchedTerms = new HashMap<>();
+
+            for (String term : terms) {
+                Map<Long, Double> termScores = new HashMap<>();
+
+                // Casamento por prefixo: "impress" encontra "impressora" e "impressao"
+                postings.subMap(term, true, term + Character.MAX_VALUE, true).forEach((indexedTerm, documents) -> {
+                    double idf = Math.log(1.0 + (double) totalDocuments / documents.size());
+                    double factor = indexedTerm.equals(term) ? 1.0 : PREFIX_MATCH_FACTOR;
+
+                    documents.forEach((ticketId, weight) ->
+                            termScores.merge(ticketId, weight * idf * factor, Double::sum));
+                });
+
+                termScores.forEach((ticketId, score) -> {
+                    scores.merge(ticketId, score, Double::sum);
+                    matchedTerms.merge(ticketId, 1, Integer::sum);
+                });
+            }
+
+            return scores.entrySet().stream()
+                    .filter(entry -> matchedTerms.get(entry.getKey()) == terms.size())
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.<Long, Double>comparingByKey(Comparator.reverseOrder())))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        int size() {
+            return documentTerms.size();
+        }
+    }
+}
@@ -5,23 +5,48 @@ import com.helps.domain.model.User;
 import com.helps.domain.repository.TicketRepository;
 import com.helps.dto.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TicketService {
 
+    public static final String RELEVANCE_SORT = "relevance";
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int STREAM_CLEAR_INTERVAL = 500;
+    private static final int SEARCH_FILTER_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private TicketRepository ticketRepository;
 
@@ -32,7 +57,7 @@ public class TicketService {
     private TicketAccessService ticketAccessService;
 
     @Autowired
-    private WebSocketService webSocketService;
+    private OutboxService outboxService;
 
     @Autowired
     private NotificationService notificationService;
@@ -43,13 +68,72 @@ public class TicketService {
     @Autowired
     private ActivityLogService activityLogService;
 
+    @Autowired
+    private TicketSearchIndex ticketSearchIndex;
+
+    @Autowired
+    private ChatTicketCache chatTicketCache;
+
+    @Autowired
+    private RecentMessageBuffer recentMessageBuffer;
+
+    @Value("${search.max-results:200}")
+    private int maxSearchResults;
+
+    @Value("${search.max-candidates:5000}")
+    private int maxSearchCandidates;
+
+    @Transactional(readOnly = true)
     public Page<TicketResponseDto> findAllWithPagination(Pageable pageable, TicketFilterDto filters) {
         User currentUser = userContextService.getCurrentUser();
-        Specification<Ticket> spec = createSpecification(currentUser, filters);
+        List<Long> searchMatches = findSearchCandidates(filters);
+
+        if (searchMatches != null && RELEVANCE_SORT.equals(filters.sortBy())) {
+            return findRankedPage(rankVisibleMatches(currentUser, filters, searchMatches), pageable);
+        }
+
+        Specification<Ticket> spec = createSpecification(currentUser, filters, searchMatches);
         Page<Ticket> tickets = ticketRepository.findAll(spec, pageable);
         return tickets.map(this::convertToResponseDto);
     }
 
+    /**
+     * Paginação por cursor em (openingDate, id), sem COUNT e sem OFFSET.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<TicketResponseDto> findAllWithCursor(String cursor, int size, TicketFilterDto filters) {
+        User currentUser = userContextService.getCurrentUser();
+        int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+
+        Specification<Ticket> spec = createSpecification(currentUser, filters, findSearchCandidates(filters));
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(createCursorSpecification(decodeCursor(cursor)));
+        }
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "openingDate")
+                .and(Sort.by(Sort.Direction.DESC, "id"));
+        List<Ticket> tickets = ticketRepository.findBy(spec, query -> query
+                .sortBy(sort)
+                .project("user", "helper")
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasNext = tickets.size() > pageSize;
+        List<Ticket> pageContent = hasNext ? tickets.subList(0, pageSize) : tickets;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Ticket last = pageContent.get(pageContent.size() - 1);
+            nextCursor = new KeysetCursor(last.getOpeningDate(), last.getId()).encode();
+        }
+
+        return new CursorPageDto<>(
+                pageContent.stream().map(this::convertToResponseDto).toList(),
+                nextCursor,
+                hasNext
+        );
+    }
+
     public List<Ticket> listTickets() {
         User currentUser = userContextService.getCurrentUser();
         boolean isHelper = userContextService.hasAnyRole("HELPER");
@@ -63,6 +147,31 @@ public class TicketService {
         }
     }
 
+    /**
+     * Percorre os tickets visíveis ao usuário atual sem materializar a lista.
+     * O contexto de persistência é limpo periodicamente para manter o heap estável.
+     */
+    @Transactional(readOnly = true)
+    public void streamTickets(Consumer<Ticket> consumer) {
+        User currentUser = userContextService.getCurrentUser();
+        boolean canSeeAll = userContextService.hasAnyRole("ADMIN", "HELPER");
+
+        try (Stream<Ticket> tickets = canSeeAll
+                ? ticketRepository.streamAll()
+                : ticketRepository.streamByUser(currentUser)) {
+            Iterator<Ticket> iterator = tickets.iterator();
+            int processed = 0;
+
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+
+                if (++processed % STREAM_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
     @Transactional
     public TicketResponseDto createTicket(CreateTicketDto dto) {
         User currentUser = userContextService.getCurrentUser();
@@ -86,6 +195,7 @@ public class TicketService {
         }
 
         Ticket savedTicket = ticketRepository.save(ticket);
+        ticketSearchIndex.index(savedTicket);
 
         activityLogService.logActivity(currentUser, "TICKET_CREATED", null,
                 "Criou chamado #" + savedTicket.getId() + ": " + savedTicket.getTitle());
@@ -112,14 +222,16 @@ public class TicketService {
         ticket.setStartDate(LocalDateTime.now());
 
         Ticket updatedTicket = ticketRepository.save(ticket);
+        chatTicketCache.evict(ticket.getId());
 
         activityLogService.logActivity(helper, "TICKET_ASSIGNED", null,
                 "Assumiu chamado #" + ticket.getId() + ": " + ticket.getTitle());
 
-        webSocketService.notifyTicketStatus(updatedTicket,
-                helper.getName() + " começou a atender este ticket");
+        outboxService.enqueue(OutboxService.TICKET_STATUS, ticket.getId(),
+                Map.of("message", helper.getName() + " começou a atender este ticket"));
 
-        notificationService.notifyTicketAssigned(ticket, helper);
+        outboxService.enqueue(OutboxService.TICKET_ASSIGNED, ticket.getId(),
+                Map.of("userId", helper.getId()));
 
         return convertToResponseDto(updatedTicket);
     }
@@ -136,14 +248,17 @@ public class TicketService {
         ticket.setClosingDate(LocalDateTime.now());
 
         Ticket closedTicket = ticketRepository.save(ticket);
+        chatTicketCache.evict(ticket.getId());
+        recentMessageBuffer.evict(ticket.getId());
 
         activityLogService.logActivity(currentUser, "TICKET_CLOSED", null,
                 "Finalizou chamado #" + ticket.getId() + ": " + ticket.getTitle());
 
-        webSocketService.notifyTicketStatus(closedTicket,
-                "Ticket finalizado por " + currentUser.getName());
+        outboxService.enqueue(OutboxService.TICKET_STATUS, closedTicket.getId(),
+                Map.of("message", "Ticket finalizado por " + currentUser.getName()));
 
-        notificationService.notifyTicketClosed(ticket, currentUser);
+        outboxService.enqueue(OutboxService.TICKET_CLOSED, closedTicket.getId(),
+                Map.of("userId", currentUser.getId()));
     }
 
     public Optional<TicketResponseDto> findById(Long id) {
@@ -167,6 +282,7 @@ public class TicketService {
         ticket.setUser(solicitante);
 
         Ticket savedTicket = ticketRepository.save(ticket);
+        ticketSearchIndex.index(savedTicket);
 
         activityLogService.logActivity(solicitante, "TICKET_CREATED", null,
                 "Criou chamado #" + savedTicket.getId() + ": " + savedTicket.getTitle());
@@ -203,6 +319,7 @@ public class TicketService {
         }
 
         Ticket savedTicket = ticketRepository.save(ticket);
+        ticketSearchIndex.index(savedTicket);
 
         activityLogService.logActivity(solicitante, "TICKET_CREATED", null,
                 "Criou chamado #" + savedTicket.getId() + ": " + savedTicket.getTitle());
@@ -234,15 +351,18 @@ public class TicketService {
                         ticket.setStatus(updatedTicket.getStatus());
 
                         if (!previousStatus.equals(updatedTicket.getStatus())) {
+                            chatTicketCache.evict(ticket.getId());
+                            recentMessageBuffer.evict(ticket.getId());
                             activityLogService.logActivity(userContextService.getCurrentUser(), "TICKET_STATUS_CHANGED", null,
                                     "Alterou status do chamado #" + ticket.getId() + " de " + previousStatus + " para " + ticket.getStatus());
 
-                            webSocketService.notifyTicketStatus(ticket,
-                                    "Status changed from " + previousStatus + " to " + ticket.getStatus());
+                            outboxService.enqueue(OutboxService.TICKET_STATUS, ticket.getId(),
+                                    Map.of("message", "Status changed from " + previousStatus + " to " + ticket.getStatus()));
                         }
                     }
 
                     Ticket savedTicket = ticketRepository.save(ticket);
+                    ticketSearchIndex.index(savedTicket);
 
                     activityLogService.logActivity(userContextService.getCurrentUser(), "TICKET_UPDATED", null,
                             "Atualizou chamado #" + ticket.getId() + ": " + originalTitle);
@@ -252,7 +372,75 @@ public class TicketService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ticket not found"));
     }
 
-    private Specification<Ticket> createSpecification(User currentUser, TicketFilterDto filters) {
+    /**
+     * IDs que casam com a busca textual no índice invertido, até search.max-candidates.
+     * Nas ordenações por data entram inteiros no filtro do banco, que aplica visibilidade,
+     * contagem e paginação. Retorna null quando não há termo de busca.
+     */
+    private List<Long> findSearchCandidates(TicketFilterDto filters) {
+        if (filters == null || filters.search() == null || filters.search().isBlank()) {
+            return null;
+        }
+        return ticketSearchIndex.search(filters.search(), maxSearchCandidates);
+    }
+
+    /**
+     * Só para a ordenação por relevância: aplica visibilidade e filtros no banco, em lotes
+     * na ordem do ranking, até reunir search.max-results tickets visíveis.
+     */
+    private List<Long> rankVisibleMatches(User currentUser, TicketFilterDto filters, List<Long> ranked) {
+        Specification<Ticket> spec = createSpecification(currentUser, filters, null);
+
+        List<Long> visible = new ArrayList<>();
+        for (int from = 0; from < ranked.size() && visible.size() < maxSearchResults; from += SEARCH_FILTER_CHUNK_SIZE) {
+            List<Long> chunk = ranked.subList(from, Math.min(from + SEARCH_FILTER_CHUNK_SIZE, ranked.size()));
+            Set<Long> allowed = new HashSet<>(findTicketIds(spec, chunk));
+
+            for (Long id : chunk) {
+                if (allowed.contains(id)) {
+                    visible.add(id);
+                    if (visible.size() == maxSearchResults) {
+                        break;
+                    }
+                }
+            }
+        }
+        return visible;
+    }
+
+    private List<Long> findTicketIds(Specification<Ticket> spec, List<Long> ids) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Ticket> root = query.from(Ticket.class);
+
+        query.select(root.get("id"))
+                .where(criteriaBuilder.and(spec.toPredicate(root, query, criteriaBuilder), root.get("id").in(ids)));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Página ordenada pela relevância da busca. Os IDs já vêm filtrados e ranqueados;
+     * só os tickets da página são carregados.
+     */
+    private Page<TicketResponseDto> findRankedPage(List<Long> rankedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+
+        Map<Long, Ticket> ticketsById = new HashMap<>();
+        if (!pageIds.isEmpty()) {
+            ticketRepository.findByIdIn(pageIds).forEach(ticket -> ticketsById.put(ticket.getId(), ticket));
+        }
+
+        List<TicketResponseDto> content = pageIds.stream()
+                .map(ticketsById::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToResponseDto)
+                .toList();
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+
+    private Specification<Ticket> createSpecification(User currentUser, TicketFilterDto filters, List<Long> searchMatches) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -269,13 +457,10 @@ public class TicketService {
                     predicates.add(criteriaBuilder.equal(root.get("category"), filters.category()));
                 }
 
-                if (filters.search() != null && !filters.search().isEmpty()) {
-                    String searchPattern = "%" + filters.search().toLowerCase() + "%";
-                    Predicate titlePredicate = criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get("title")), searchPattern);
-                    Predicate descriptionPredicate = criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get("description")), searchPattern);
-                    predicates.add(criteriaBuilder.or(titlePredicate, descriptionPredicate));
+                if (searchMatches != null) {
+                    predicates.add(searchMatches.isEmpty()
+                            ? criteriaBuilder.disjunction()
+                            : root.get("id").in(searchMatches));
                 }
             }
 
@@ -283,6 +468,24 @@ public class TicketService {
         };
     }
 
+    private Specification<Ticket> createCursorSpecification(KeysetCursor cursor) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.get("openingDate"), cursor.timestamp()),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("openingDate"), cursor.timestamp()),
+                        criteriaBuilder.lessThan(root.get("id"), cursor.id())
+                )
+        );
+    }
+
+    private KeysetCursor decodeCursor(String cursor) {
+        try {
+            return KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+    }
+
     private TicketResponseDto convertToResponseDto(Ticket ticket) {
         return new TicketResponseDto(
                 ticket.getId(),
@@ -0,0 +1,86 @@
+package com.helps.domain.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.helps.domain.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contador em memória de notificações não lidas por usuário. Carregado com um COUNT
+ * na primeira leitura e mantido por incrementos/decrementos aplicados após o commit;
+ * a expiração curta corrige eventuais divergências (ex.: escritas de outras instâncias).
+ */
+@Service
+public class UnreadNotificationCounter {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${notification.unread-counter.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${notification.unread-counter.max-size:10000}")
+    private long maxSize;
+
+    private LoadingCache<Long, AtomicInteger> counters;
+
+    @PostConstruct
+    public void init() {
+        counters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build(userId -> new AtomicInteger((int) notificationRepository.countUnreadByUserId(userId)));
+    }
+
+    public int get(Long userId) {
+        return counters.get(userId).get();
+    }
+
+    public void increment(Long userId) {
+        afterCommit(() -> {
+            AtomicInteger counter = counters.getIfPresent(userId);
+            if (counter != null) {
+                counter.incrementAndGet();
+            }
+        });
+    }
+
+    public void decrement(Long userId, int amount) {
+        afterCommit(() -> {
+            AtomicInteger counter = counters.getIfPresent(userId);
+            if (counter != null) {
+                counter.updateAndGet(value -> Math.max(0, value - amount));
+            }
+        });
+    }
+
+    public void reset(Long userId) {
+        afterCommit(() -> {
+            AtomicInteger counter = counters.getIfPresent(userId);
+            if (counter != null) {
+                counter.set(0);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package com.helps.domain.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.helps.domain.model.Role;
 import com.helps.domain.model.User;
 import com.helps.domain.repository.RoleRepository;
 import com.helps.domain.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -20,20 +29,111 @@ import java.util.stream.Collectors;
 @Service
 public class UserContextService {
 
+    private static final String CURRENT_USER_ATTRIBUTE = UserContextService.class.getName() + ".currentUser";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String NAME_CLAIM = "name";
+    private static final String USERNAME_CLAIM = "username";
+    private static final String ROLE_PREFIX = "ROLE_";
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private RoleRepository roleRepository;
 
+    @Value("${security.principal-cache.ttl-seconds:60}")
+    private long principalCacheTtlSeconds;
+
+    @Value("${security.principal-cache.max-size:1000}")
+    private long principalCacheMaxSize;
+
+    /**
+     * Retrato imutável do usuário autenticado, para leitura de campos sem acesso ao banco.
+     * Não é entidade: associações e consultas usam {@link #getCurrentUser()}.
+     */
+    public record PrincipalSnapshot(Long id, String username, String name, boolean enabled, List<String> roles) {
+
+        static PrincipalSnapshot of(User user) {
+            return new PrincipalSnapshot(
+                    user.getId(),
+                    user.getUsername(),
+                    user.getName(),
+                    user.isEnabled(),
+                    user.getRoles().stream()
+                            .map(Role::getName)
+                            .toList()
+            );
+        }
+
+        public String displayName() {
+            return name != null ? name : username;
+        }
+    }
+
+    // Usuário autenticado por identificador do token (subject), para evitar ida ao banco a cada requisição
+    private Cache<String, PrincipalSnapshot> principalCache;
+
+    @PostConstruct
+    void initPrincipalCache() {
+        principalCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                .build();
+    }
+
+    /**
+     * Referência gerenciada ao usuário autenticado, sem consulta até que um campo além do id
+     * seja lido. Serve para associações e parâmetros de consulta; campos só dentro de transação.
+     */
     public User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuário não autenticado");
+        return userRepository.getReferenceById(getCurrentPrincipal().id());
+    }
+
+    /**
+     * Dados do usuário autenticado vindos do cache de principal, memorizados por requisição.
+     */
+    public PrincipalSnapshot getCurrentPrincipal() {
+        Authentication auth = getAuthentication();
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null &&
+                requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof PrincipalSnapshot memoized) {
+            return memoized;
+        }
+
+        PrincipalSnapshot principal = principalCache.get(auth.getName(), identifier -> PrincipalSnapshot.of(loadUser(auth)));
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
         }
 
+        return principal;
+    }
+
+    /**
+     * Remove o usuário do cache de principal. Deve ser chamado quando o usuário
+     * é alterado, desativado ou excluído.
+     */
+    public void evictUser(User user) {
+        if (user == null) {
+            return;
+        }
+
+        if (user.getId() != null) {
+            principalCache.invalidate(user.getId().toString());
+        }
+        if (user.getUsername() != null) {
+            principalCache.invalidate(user.getUsername());
+        }
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.removeAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private User loadUser(Authentication auth) {
         String identifier = auth.getName();
-        User user = null;
 
         Optional<User> userByUsername = userRepository.findByUsername(identifier);
         if (userByUsername.isPresent()) {
@@ -74,17 +174,69 @@ public class UserContextService {
                 "Usuário não encontrado para o identificador: " + identifier);
     }
 
+    /**
+     * ID do usuário autenticado a partir do subject do token, sem acesso ao banco.
+     */
+    public Long getCurrentUserId() {
+        Authentication auth = getAuthentication();
+
+        if (auth instanceof JwtAuthenticationToken jwtAuth) {
+            try {
+                return Long.parseLong(jwtAuth.getToken().getSubject());
+            } catch (NumberFormatException ignored) {}
+        }
+
+        return getCurrentPrincipal().id();
+    }
+
+    /**
+     * Username do usuário autenticado (claim "username"), com fallback para o banco.
+     */
+    public String getCurrentUsername() {
+        Authentication auth = getAuthentication();
+
+        if (auth instanceof JwtAuthenticationToken jwtAuth && jwtAuth.getToken().hasClaim(USERNAME_CLAIM)) {
+            return jwtAuth.getToken().getClaimAsString(USERNAME_CLAIM);
+        }
+
+        return getCurrentPrincipal().username();
+    }
+
+    /**
+     * Nome de exibição do usuário autenticado (claim "name"), com fallback para o banco.
+     */
+    public String getCurrentDisplayName() {
+        Authentication auth = getAuthentication();
+
+        if (auth instanceof JwtAuthenticationToken jwtAuth && jwtAuth.getToken().hasClaim(NAME_CLAIM)) {
+            return jwtAuth.getToken().getClaimAsString(NAME_CLAIM);
+        }
+
+        return getCurrentPrincipal().displayName();
+    }
+
     public boolean hasRole(String role) {
-        User user = getCurrentUser();
-        return user.getRoles().stream()
-                .anyMatch(r -> r.getName().equals(role));
+        return hasAnyRole(role);
     }
 
+    /**
+     * Verifica os papéis pelas authorities do token (claim "roles"), apenas em memória.
+     * Tokens sem a claim caem na verificação pelos papéis do usuário no banco.
+     */
     public boolean hasAnyRole(String... roles) {
-        User user = getCurrentUser();
-        return user.getRoles().stream()
-                .anyMatch(r -> {
-                    String roleName = r.getName();
+        Authentication auth = getAuthentication();
+
+        if (auth instanceof JwtAuthenticationToken jwtAuth && jwtAuth.getToken().hasClaim(ROLES_CLAIM)) {
+            for (GrantedAuthority authority : auth.getAuthorities()) {
+                if (matchesAnyRole(authority.getAuthority(), roles)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return getCurrentPrincipal().roles().stream()
+                .anyMatch(roleName -> {
                     for (String role : roles) {
                         if (roleName.equals(role) || roleName.equals(role)) {
                             return true;
@@ -94,6 +246,23 @@ public class UserContextService {
                 });
     }
 
+    private Authentication getAuthentication() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuário não autenticado");
+        }
+        return auth;
+    }
+
+    private boolean matchesAnyRole(String authority, String... roles) {
+        for (String role : roles) {
+            if (authority.equals(role) || authority.equals(ROLE_PREFIX + role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public List<User> findUsersWithRole(String roleName) {
         Optional<Role> roleOpt = roleRepository.findByName(roleName);
         if (!roleOpt.isPresent()) {
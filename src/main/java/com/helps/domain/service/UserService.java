@@ -110,6 +110,7 @@ public class UserService {
         try {
             cleanupUserReferences(user);
             userRepository.delete(user);
+            userContextService.evictUser(user);
         } catch (Exception e) {
             System.err.println("Erro ao excluir usuário: " + e.getMessage());
             throw new ResponseStatusException(HttpStatus.CONFLICT,
@@ -152,6 +153,7 @@ public class UserService {
         boolean wasEnabled = user.isEnabled();
         user.setEnabled(enabled);
         User savedUser = userRepository.save(user);
+        userContextService.evictUser(savedUser);
 
         try {
             User currentUser = userContextService.getCurrentUser();
@@ -210,6 +212,7 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        userContextService.evictUser(savedUser);
 
         try {
             User currentUser = userContextService.getCurrentUser();
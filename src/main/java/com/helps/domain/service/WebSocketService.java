@@ -1,29 +1,47 @@
 package com.helps.domain.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.helps.domain.model.Ticket;
 import com.helps.domain.model.Message;
 import com.helps.domain.model.User;
+import com.helps.dto.ChatAckDto;
 import com.helps.dto.ChatMessageDto;
 import com.helps.dto.NotificationDto;
-import lombok.RequiredArgsConstructor;
+import com.helps.infra.websocket.WirePayload;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class WebSocketService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectWriter payloadWriter;
+    private final ObjectWriter cborWriter;
+
+    public WebSocketService(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.payloadWriter = objectMapper.writer().without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.cborWriter = objectMapper.copyWith(new CBORFactory()).writer()
+                .with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
 
     /**
      * Envia mensagem de chat para todos os usuários conectados ao ticket.
      */
-    public void sendChatMessage(Message message) {
+    public void sendChatMessage(Message message, Long sequence) {
         try {
             Long ticketId = message.getTicket().getId();
             User sender = message.getSender();
@@ -34,11 +52,12 @@ public class WebSocketService {
                     sender.getId(),
                     sender.getName() != null ? sender.getName() : sender.getUsername(),
                     message.getContent(),
-                    message.getSentDate()
+                    message.getSentDate(),
+                    sequence,
+                    message.getId()
             );
 
-            String destination = "/topic/ticket/" + ticketId;
-            messagingTemplate.convertAndSend(destination, chatMessage);
+            sendChatMessage(chatMessage);
                     
         } catch (MessagingException e) {
             log.error("Failed to send chat message for ticket {}: {}", 
@@ -46,6 +65,22 @@ public class WebSocketService {
         }
     }
 
+    public void sendChatMessage(ChatMessageDto chatMessage) {
+        try {
+            send("/topic/ticket/" + chatMessage.ticketId(), serialize(chatMessage));
+        } catch (MessagingException e) {
+            log.error("Failed to send chat message for ticket {}: {}", chatMessage.ticketId(), e.getMessage());
+        }
+    }
+
+    public void sendChatAck(String username, ChatAckDto ack) {
+        try {
+            sendToUser(username, "/queue/chat-ack", serialize(ack));
+        } catch (MessagingException e) {
+            log.error("Failed to send chat ack to user {}: {}", username, e.getMessage());
+        }
+    }
+
     /**
      * Envia notificação para usuário específico.
      */
@@ -56,13 +91,26 @@ public class WebSocketService {
         }
 
         try {
-            messagingTemplate.convertAndSendToUser(user.getUsername(), "/queue/notifications", notification);
+            sendToUser(user.getUsername(), "/queue/notifications", serialize(notification));
             
         } catch (MessagingException e) {
             log.error("Failed to send notification to user {}: {}", user.getUsername(), e.getMessage());
         }
     }
 
+    /**
+     * Envia notificação para usuário específico a partir do username,
+     * sem exigir a entidade carregada.
+     */
+    public void sendNotification(NotificationDto notification, String username) {
+        try {
+            sendToUser(username, "/queue/notifications", serialize(notification));
+
+        } catch (MessagingException e) {
+            log.error("Failed to send notification to user {}: {}", username, e.getMessage());
+        }
+    }
+
     /**
      * Notifica mudança de status do ticket.
      */
@@ -74,35 +122,29 @@ public class WebSocketService {
                     null,
                     "System",
                     event,
-                    LocalDateTime.now()
+                    LocalDateTime.now(),
+                    null,
+                    null
             );
 
-            messagingTemplate.convertAndSend("/topic/ticket/" + ticket.getId(), statusMessage);
+            send("/topic/ticket/" + ticket.getId(), serialize(statusMessage));
+
+            // Solicitante e helper recebem a mesma notificação: serializa uma única vez
+            WirePayload notification = serialize(new NotificationDto(
+                    null,
+                    "Ticket #" + ticket.getId() + ": " + event,
+                    "TICKET_STATUS",
+                    false,
+                    ticket.getId(),
+                    LocalDateTime.now()
+            ));
 
-            // Notifica o usuário do ticket
             if (ticket.getUser() != null) {
-                NotificationDto userNotification = new NotificationDto(
-                        null,
-                        "Ticket #" + ticket.getId() + ": " + event,
-                        "TICKET_STATUS",
-                        false,
-                        ticket.getId(),
-                        LocalDateTime.now()
-                );
-                sendNotification(userNotification, ticket.getUser());
+                sendToUser(ticket.getUser().getUsername(), "/queue/notifications", notification);
             }
 
-            // Notifica o helper
             if (ticket.getHelper() != null && !ticket.getHelper().equals(ticket.getUser())) {
-                NotificationDto helperNotification = new NotificationDto(
-                        null,
-                        "Ticket #" + ticket.getId() + ": " + event,
-                        "TICKET_STATUS",
-                        false,
-                        ticket.getId(),
-                        LocalDateTime.now()
-                );
-                sendNotification(helperNotification, ticket.getHelper());
+                sendToUser(ticket.getHelper().getUsername(), "/queue/notifications", notification);
             }
             
         } catch (MessagingException e) {
@@ -121,10 +163,12 @@ public class WebSocketService {
                     userId,
                     username,
                     username + " entrou no chat",
-                    LocalDateTime.now()
+                    LocalDateTime.now(),
+                    null,
+                    null
             );
 
-            messagingTemplate.convertAndSend("/topic/ticket/" + ticketId, joinMessage);
+            send("/topic/ticket/" + ticketId, serialize(joinMessage));
             
         } catch (MessagingException e) {
             log.error("Failed to notify user entry: user={} ticket={} error={}", username, ticketId, e.getMessage());
@@ -142,10 +186,12 @@ public class WebSocketService {
                     userId,
                     username,
                     username + " saiu do chat",
-                    LocalDateTime.now()
+                    LocalDateTime.now(),
+                    null,
+                    null
             );
 
-            messagingTemplate.convertAndSend("/topic/ticket/" + ticketId, leaveMessage);
+            send("/topic/ticket/" + ticketId, serialize(leaveMessage));
             
         } catch (MessagingException e) {
             log.error("Failed to notify user exit: user={} ticket={} error={}", username, ticketId, e.getMessage());
@@ -157,10 +203,38 @@ public class WebSocketService {
      */
     public void sendGlobalNotification(NotificationDto notification) {
         try {
-            messagingTemplate.convertAndSend("/topic/notifications", notification);
+            send("/topic/notifications", serialize(notification));
             
         } catch (MessagingException e) {
             log.error("Failed to send global notification: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Serializa o payload uma única vez por formato: JSON no mesmo formato do conversor STOMP
+     * padrão (datas ISO-8601) e, sob demanda, CBOR direto do DTO (datas como números).
+     * Os bytes são reutilizados em todos os destinos e assinantes.
+     */
+    private WirePayload serialize(Object payload) {
+        return WirePayload.of(payload, payloadWriter, cborWriter);
+    }
+
+    private void send(String destination, WirePayload payload) {
+        messagingTemplate.send(destination, jsonMessage(payload));
+    }
+
+    private void sendToUser(String username, String destination, WirePayload payload) {
+        String userDestination = messagingTemplate.getUserDestinationPrefix()
+                + StringUtils.replace(username, "/", "%2F") + destination;
+        messagingTemplate.send(userDestination, jsonMessage(payload));
+    }
+
+    // Cada envio precisa de headers próprios (destino); o corpo é compartilhado
+    private org.springframework.messaging.Message<byte[]> jsonMessage(WirePayload payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(WirePayload.HEADER, payload);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload.json(), accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,9 @@
+package com.helps.dto;
+
+public record ActivityLogWriterMetricsDto(
+        int queued,
+        long written,
+        long dropped,
+        long spilled,
+        long failedBatches
+) {}
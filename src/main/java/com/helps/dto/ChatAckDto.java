@@ -0,0 +1,12 @@
+package com.helps.dto;
+
+/**
+ * Confirmação de gravação de uma mensagem de chat enviada por STOMP com "x-ack: commit".
+ * A sequência correlaciona a confirmação com o envio; a mensagem é identificada pelo messageId.
+ */
+public record ChatAckDto(
+        Long ticketId,
+        Long sequence,
+        Long messageId,
+        boolean committed
+) {}
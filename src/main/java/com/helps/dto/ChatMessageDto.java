@@ -2,11 +2,17 @@ package com.helps.dto;
 
 import java.time.LocalDateTime;
 
+/**
+ * Mensagem difundida no tópico do ticket. Os clientes ordenam e deduplicam pelo messageId;
+ * sequence é atribuída pela instância que recebeu o envio e não é única entre instâncias.
+ */
 public record ChatMessageDto(
         String type,
         Long ticketId,
         Long senderId,
         String senderName,
         String content,
-        LocalDateTime timestamp
-) {}
\ No newline at end of file
+        LocalDateTime timestamp,
+        Long sequence,
+        Long messageId
+) {}
@@ -0,0 +1,8 @@
+package com.helps.dto;
+
+public record ChatMessageWriterMetricsDto(
+        int queued,
+        long written,
+        long batches,
+        long failed
+) {}
@@ -0,0 +1,9 @@
+package com.helps.dto;
+
+import java.util.List;
+
+public record CursorPageDto<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext
+) {}
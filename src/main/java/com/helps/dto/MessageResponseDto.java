@@ -19,6 +19,13 @@ public class MessageResponseDto {
     private String content;
     private String imagePath;
     private LocalDateTime sentDate;
+    // Sequência do chat no ticket; preenchida só nas respostas do envio
+    private Long sequence;
+
+    public MessageResponseDto(Long id, Long ticketId, Long senderId, String senderName, String senderUsername,
+                              String content, String imagePath, LocalDateTime sentDate) {
+        this(id, ticketId, senderId, senderName, senderUsername, content, imagePath, sentDate, null);
+    }
 
     public static MessageResponseDto fromEntity(Message message) {
         MessageResponseDto dto = new MessageResponseDto();
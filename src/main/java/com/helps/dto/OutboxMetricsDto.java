@@ -0,0 +1,10 @@
+package com.helps.dto;
+
+public record OutboxMetricsDto(
+        long backlog,
+        Long oldestPendingAgeMs,
+        long dispatched,
+        long failed,
+        Long lastLagMs,
+        Long maxLagMs
+) {}
@@ -0,0 +1,11 @@
+package com.helps.dto;
+
+/**
+ * Dados do ticket necessários para autorizar mensagens de chat sem carregar a entidade.
+ */
+public record TicketChatInfoDto(
+        Long ticketId,
+        String status,
+        Long requesterId,
+        Long helperId
+) {}
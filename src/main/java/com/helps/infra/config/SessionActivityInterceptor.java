@@ -0,0 +1,37 @@
+package com.helps.infra.config;
+
+import com.helps.domain.service.ActivityLogService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Registra o último acesso da sessão (claim "sessionId" do token) a cada requisição autenticada.
+ */
+@Component
+public class SessionActivityInterceptor implements HandlerInterceptor {
+
+    private static final String SESSION_ID_CLAIM = "sessionId";
+
+    @Autowired
+    private ActivityLogService activityLogService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth instanceof JwtAuthenticationToken jwtAuth) {
+            String sessionId = jwtAuth.getToken().getClaimAsString(SESSION_ID_CLAIM);
+            if (sessionId != null) {
+                activityLogService.updateLastActivity(sessionId);
+            }
+        }
+
+        return true;
+    }
+}
@@ -1,10 +1,14 @@
 package com.helps.infra.config;
 
+import com.helps.infra.security.StompAuthChannelInterceptor;
+import com.helps.infra.websocket.StompWireFormatInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
@@ -16,9 +20,47 @@ import org.springframework.web.socket.config.annotation.WebSocketTransportRegist
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final String BROKER_MODE_RELAY = "relay";
+
+    @Autowired
+    private StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    @Autowired
+    private StompWireFormatInterceptor stompWireFormatInterceptor;
+
     @Value("${websocket.allowed-origins:http://localhost:3000}")
     private String websocketAllowedOrigins;
 
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.broker.relay.user-destination-broadcast:/topic/unresolved-user}")
+    private String userDestinationBroadcast;
+
+    @Value("${websocket.broker.relay.user-registry-broadcast:/topic/user-registry}")
+    private String userRegistryBroadcast;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         String[] allowedOrigins = websocketAllowedOrigins.split(",");
@@ -26,6 +68,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Endpoint com SockJS
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns(allowedOrigins)
+                .addInterceptors(stompWireFormatInterceptor.sockJsHandshakeInterceptor())
                 .withSockJS()
                 .setSessionCookieNeeded(false)
                 .setHeartbeatTime(25000)
@@ -40,16 +83,42 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        // Configuração mais robusta do broker
-        registry.enableSimpleBroker("/topic", "/queue", "/user")
-                .setHeartbeatValue(new long[]{30000, 30000}) // Aumentado para evitar desconexões
-                .setTaskScheduler(heartBeatScheduler());
+        if (BROKER_MODE_RELAY.equalsIgnoreCase(brokerMode)) {
+            configureBrokerRelay(registry);
+        } else {
+            // Configuração mais robusta do broker
+            // "/user" fica com o UserDestinationMessageHandler, que traduz para /queue/*-user{sessão}
+            registry.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[]{30000, 30000}) // Aumentado para evitar desconexões
+                    .setTaskScheduler(heartBeatScheduler());
+        }
 
         registry.setApplicationDestinationPrefixes("/app");
         registry.setUserDestinationPrefix("/user");
         registry.setPreservePublishOrder(true); // Mantém ordem das mensagens
     }
 
+    /**
+     * Encaminha /topic e /queue para um broker STOMP externo (ActiveMQ, RabbitMQ etc.),
+     * entregando mensagens a clientes conectados em qualquer instância. Os broadcasts de
+     * user destination e do registro de usuários permitem resolver /user/** entre nós.
+     */
+    private void configureBrokerRelay(MessageBrokerRegistry registry) {
+        StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayClientLogin)
+                .setClientPasscode(relayClientPasscode)
+                .setSystemLogin(relaySystemLogin)
+                .setSystemPasscode(relaySystemPasscode)
+                .setUserDestinationBroadcast(userDestinationBroadcast)
+                .setUserRegistryBroadcast(userRegistryBroadcast);
+
+        if (relayVirtualHost != null && !relayVirtualHost.isBlank()) {
+            relay.setVirtualHost(relayVirtualHost);
+        }
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         // Pool de threads para processar mensagens recebidas
@@ -58,6 +127,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .maxPoolSize(16)
                 .queueCapacity(500)
                 .keepAliveSeconds(60);
+
+        // Autenticação do CONNECT e SecurityContext durante o processamento das mensagens
+        registration.interceptors(stompAuthChannelInterceptor, stompWireFormatInterceptor);
     }
 
     @Override
@@ -68,6 +140,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .maxPoolSize(16)
                 .queueCapacity(500)
                 .keepAliveSeconds(60);
+
+        // Converte as entregas para CBOR nas sessões que negociaram o formato no CONNECT
+        registration.interceptors(stompWireFormatInterceptor);
     }
 
     @Override
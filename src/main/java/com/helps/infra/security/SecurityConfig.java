@@ -69,6 +69,7 @@ public class SecurityConfig {
 
                         .requestMatchers(HttpMethod.GET, "/tickets").authenticated()
                         .requestMatchers(HttpMethod.GET, "/tickets/paginated").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/tickets/stream").authenticated()
                         .requestMatchers(HttpMethod.GET, "/tickets/{id}").authenticated()
                         .requestMatchers(HttpMethod.POST, "/tickets").authenticated()
                         .requestMatchers(HttpMethod.POST, "/tickets/with-image").authenticated()
@@ -89,12 +90,14 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/tickets/{id}/mensagens").authenticated()
                         .requestMatchers(HttpMethod.POST, "/tickets/{id}/mensagens/with-image").authenticated()
                         .requestMatchers(HttpMethod.GET, "/tickets/{id}/mensagens/chat-history").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/tickets/{id}/mensagens/history").authenticated()
 
                         .requestMatchers(HttpMethod.GET, "/notifications").authenticated()
                         .requestMatchers(HttpMethod.GET, "/notifications/unread").authenticated()
                         .requestMatchers(HttpMethod.PATCH, "/notifications/**").authenticated()
                         .requestMatchers(HttpMethod.POST, "/notifications/test").authenticated()
 
+                        .requestMatchers(HttpMethod.GET, "/metrics/outbox", "/metrics/activity-log", "/metrics/chat-writer").hasAuthority("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/metrics/**").authenticated()
 
                         .anyRequest().authenticated())
@@ -0,0 +1,116 @@
+package com.helps.infra.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Autentica a sessão STOMP uma única vez, no CONNECT, a partir do header "Authorization"
+ * (Bearer). O principal fica associado à sessão e é repassado às mensagens seguintes;
+ * durante o processamento de cada mensagem ele também é exposto no SecurityContextHolder.
+ * O nome do principal é o username, usado nos destinos /user/**.
+ */
+@Slf4j
+@Component
+public class StompAuthChannelInterceptor implements ExecutorChannelInterceptor {
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter;
+
+    /**
+     * ID do usuário autenticado no CONNECT (subject do token), ou null para sessões anônimas.
+     */
+    public static Long resolveUserId(Principal principal) {
+        if (principal instanceof JwtAuthenticationToken authentication) {
+            try {
+                return Long.parseLong(authentication.getToken().getSubject());
+            } catch (NumberFormatException ignored) {}
+        }
+        return null;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String token = resolveToken(accessor);
+        if (token == null) {
+            // Conexões anônimas seguem podendo assinar tópicos, mas não enviar mensagens de chat
+            return message;
+        }
+
+        try {
+            accessor.setUser(authenticate(jwtDecoder.decode(token)));
+        } catch (JwtException e) {
+            log.debug("Token inválido no CONNECT STOMP: {}", e.getMessage());
+            throw new MessageDeliveryException(message, "Token inválido");
+        }
+
+        return message;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (user instanceof Authentication authentication) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                    Exception ex) {
+        SecurityContextHolder.clearContext();
+    }
+
+    private JwtAuthenticationToken authenticate(Jwt jwt) {
+        AbstractAuthenticationToken converted = jwtAuthenticationConverter.convert(jwt);
+        String username = jwt.getClaimAsString("username");
+        return new JwtAuthenticationToken(jwt, converted.getAuthorities(),
+                username != null ? username : jwt.getSubject());
+    }
+
+    private String resolveToken(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER);
+        if (header == null) {
+            header = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER.toLowerCase());
+        }
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+
+        return header.startsWith(BEARER_PREFIX) ? header.substring(BEARER_PREFIX.length()).trim() : header.trim();
+    }
+}
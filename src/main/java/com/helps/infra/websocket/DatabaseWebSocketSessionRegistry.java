@@ -0,0 +1,223 @@
+package com.helps.infra.websocket;
+
+import com.helps.domain.model.WebSocketRoomMember;
+import com.helps.domain.model.WebSocketSessionEntry;
+import com.helps.domain.repository.WebSocketRoomMemberRepository;
+import com.helps.domain.repository.WebSocketSessionEntryRepository;
+import com.helps.infra.config.NodeIdentity;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de sessões WebSocket compartilhado entre instâncias via banco de dados.
+ * Cada nó grava suas sessões com o próprio ID e renova periodicamente o lease
+ * (last_heartbeat); linhas de nós que pararam de renovar expiram e são removidas.
+ * Permite saber se um usuário está online em qualquer nó, qual nó mantém uma sessão e
+ * quem está na sala de chat de cada ticket (websocket_room_members, válido pelo lease da sessão).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "websocket.session-registry.store", havingValue = "database")
+public class DatabaseWebSocketSessionRegistry implements WebSocketSessionRegistry {
+
+    @Autowired
+    private WebSocketSessionEntryRepository repository;
+
+    @Autowired
+    private WebSocketRoomMemberRepository roomRepository;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${websocket.session-registry.lease-ms:45000}")
+    private long leaseMs;
+
+    // Sessões deste nó, para evitar escrita de lease quando não há conexões locais
+    private final Set<String> localSessions = ConcurrentHashMap.newKeySet();
+
+    @Override
+    @Transactional
+    public void addSession(String username, String sessionId) {
+        if (username == null || username.trim().isEmpty() || sessionId == null || sessionId.trim().isEmpty()) {
+            log.warn("Tentativa de adicionar sessão com dados inválidos: username={}, sessionId={}", username, sessionId);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        WebSocketSessionEntry entry = new WebSocketSessionEntry();
+        entry.setSessionId(sessionId.trim());
+        entry.setUsername(username.trim());
+        entry.setNodeId(nodeIdentity.getNodeId());
+        entry.setConnectedAt(now);
+        entry.setLastHeartbeat(now);
+        repository.save(entry);
+
+        localSessions.add(sessionId.trim());
+    }
+
+    @Override
+    @Transactional
+    public void removeSession(String username, String sessionId) {
+        if (username == null || sessionId == null) {
+            log.warn("Tentativa de remover sessão com dados nulos: username={}, sessionId={}", username, sessionId);
+            return;
+        }
+
+        repository.deleteSession(sessionId.trim(), username.trim());
+        roomRepository.deleteBySessionId(sessionId.trim());
+        localSessions.remove(sessionId.trim());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> getSessions(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return Set.of();
+        }
+        return Set.copyOf(repository.findSessionIdsByUsername(username.trim(), aliveSince()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasSession(String username, String sessionId) {
+        if (username == null || sessionId == null) {
+            return false;
+        }
+        return repository.findAlive(sessionId.trim(), aliveSince())
+                .map(entry -> entry.getUsername().equals(username.trim()))
+                .orElse(false);
+    }
+
+    @Override
+    @Nullable
+    @Transactional(readOnly = true)
+    public String findUsernameBySessionId(String sessionId) {
+        if (sessionId == null || sessionId.trim().isEmpty()) {
+            return null;
+        }
+        return repository.findAlive(sessionId.trim(), aliveSince())
+                .map(WebSocketSessionEntry::getUsername)
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getTotalActiveSessions() {
+        return (int) repository.countByLastHeartbeatGreaterThanEqual(aliveSince());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getTotalConnectedUsers() {
+        return (int) repository.countDistinctUsernames(aliveSince());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isUserOnline(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return false;
+        }
+        return repository.existsByUsernameAndLastHeartbeatGreaterThanEqual(username.trim(), aliveSince());
+    }
+
+    @Override
+    @Nullable
+    @Transactional(readOnly = true)
+    public String findNodeBySessionId(String sessionId) {
+        if (sessionId == null || sessionId.trim().isEmpty()) {
+            return null;
+        }
+        return repository.findAlive(sessionId.trim(), aliveSince())
+                .map(WebSocketSessionEntry::getNodeId)
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional
+    public void joinRoom(String username, String sessionId, Long ticketId) {
+        if (username == null || sessionId == null || ticketId == null
+                || roomRepository.existsBySessionIdAndTicketId(sessionId.trim(), ticketId)) {
+            return;
+        }
+
+        WebSocketRoomMember member = new WebSocketRoomMember();
+        member.setSessionId(sessionId.trim());
+        member.setTicketId(ticketId);
+        member.setUsername(username.trim());
+        member.setNodeId(nodeIdentity.getNodeId());
+        roomRepository.save(member);
+    }
+
+    @Override
+    @Transactional
+    public void leaveRoom(String sessionId, Long ticketId) {
+        if (sessionId == null || ticketId == null) {
+            return;
+        }
+        roomRepository.deleteMember(sessionId.trim(), ticketId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isUserInRoom(String username, Long ticketId) {
+        if (username == null || ticketId == null) {
+            return false;
+        }
+        return roomRepository.existsAlive(username.trim(), ticketId, aliveSince());
+    }
+
+    /**
+     * Renova o lease das sessões deste nó e remove as de nós que pararam de renovar.
+     */
+    @Scheduled(fixedDelayString = "${websocket.session-registry.heartbeat-ms:15000}")
+    @Transactional
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (!localSessions.isEmpty()) {
+            repository.renewLease(nodeIdentity.getNodeId(), now);
+        }
+
+        int expired = repository.deleteExpired(now.minus(Duration.ofMillis(leaseMs)));
+        if (expired > 0) {
+            roomRepository.deleteOrphans();
+            log.info("Removidas {} sessões WebSocket com lease expirado", expired);
+        }
+    }
+
+    @PreDestroy
+    public void releaseNodeSessions() {
+        try {
+            // @PreDestroy não passa pelo proxy transacional
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                roomRepository.deleteByNodeId(nodeIdentity.getNodeId());
+                repository.deleteByNodeId(nodeIdentity.getNodeId());
+            });
+        } catch (Exception e) {
+            log.warn("Falha ao remover sessões WebSocket do nó {}: {}", nodeIdentity.getNodeId(), e.getMessage());
+        }
+        localSessions.clear();
+    }
+
+    private LocalDateTime aliveSince() {
+        return LocalDateTime.now().minus(Duration.ofMillis(leaseMs));
+    }
+}
@@ -0,0 +1,352 @@
+package com.helps.infra.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broker STOMP mínimo em processo (TCP), para testar o modo relay com várias instâncias
+ * na mesma máquina sem um broker externo. Suporta CONNECT, SUBSCRIBE, UNSUBSCRIBE, SEND,
+ * DISCONNECT e RECEIPT com destinos exatos; não persiste mensagens nem faz ack.
+ * Apenas para desenvolvimento: se a porta já estiver em uso (outra instância hospedando
+ * o broker), esta instância apenas se conecta a ele pelo relay.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "websocket.broker.embedded.enabled", havingValue = "true")
+public class EmbeddedStompBroker {
+
+    private static final byte NULL_OCTET = 0;
+    private static final byte LINE_FEED = '\n';
+
+    private record Frame(String command, Map<String, String> headers, byte[] body) {}
+
+    private record Subscription(Connection connection, String id) {}
+
+    @Value("${websocket.broker.embedded.host:127.0.0.1}")
+    private String host;
+
+    @Value("${websocket.broker.embedded.port:61613}")
+    private int port;
+
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        ServerSocket socket = new ServerSocket();
+        try {
+            socket.setReuseAddress(true);
+            socket.bind(new InetSocketAddress(host, port));
+        } catch (BindException e) {
+            socket.close();
+            log.info("Porta {} em uso; broker STOMP embutido não iniciado nesta instância", port);
+            return;
+        }
+
+        serverSocket = socket;
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "embedded-stomp-" + port);
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        executor.execute(this::acceptLoop);
+        log.info("Broker STOMP embutido escutando em {}:{}", host, port);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (serverSocket == null) {
+            return;
+        }
+
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {}
+        connections.forEach(Connection::close);
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.add(connection);
+                executor.execute(connection::run);
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Erro ao aceitar conexão no broker STOMP embutido: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void publish(Frame frame) {
+        String destination = frame.headers().get("destination");
+        Set<Subscription> subscribers = destination != null ? subscriptions.get(destination) : null;
+        if (subscribers == null) {
+            return;
+        }
+
+        for (Subscription subscription : subscribers) {
+            Map<String, String> headers = new LinkedHashMap<>(frame.headers());
+            headers.remove("receipt");
+            headers.remove("content-length");
+            headers.put("subscription", subscription.id());
+            headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+            subscription.connection().send("MESSAGE", headers, frame.body());
+        }
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final Map<String, String> destinationsBySubscription = new ConcurrentHashMap<>();
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        void run() {
+            try {
+                Frame frame;
+                while ((frame = readFrame()) != null) {
+                    if (!handle(frame)) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("Conexão STOMP embutida encerrada: {}", e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        private boolean handle(Frame frame) {
+            Map<String, String> headers = frame.headers();
+
+            switch (frame.command()) {
+                case "CONNECT", "STOMP" -> {
+                    Map<String, String> connected = new LinkedHashMap<>();
+                    connected.put("version", "1.2");
+                    connected.put("heart-beat", "0,0");
+                    connected.put("server", "helps-embedded");
+                    send("CONNECTED", connected, new byte[0]);
+                    return true;
+                }
+                case "SUBSCRIBE" -> {
+                    String id = headers.get("id");
+                    String destination = headers.get("destination");
+                    if (id != null && destination != null) {
+                        destinationsBySubscription.put(id, destination);
+                        subscriptions.computeIfAbsent(destination, key -> new CopyOnWriteArraySet<>())
+                                .add(new Subscription(this, id));
+                    }
+                }
+                case "UNSUBSCRIBE" -> {
+                    String id = headers.get("id");
+                    if (id != null) {
+                        unsubscribe(id);
+                    }
+                }
+                case "SEND" -> publish(frame);
+                case "DISCONNECT" -> {
+                    sendReceipt(headers);
+                    return false;
+                }
+                default -> {
+                    Map<String, String> error = new LinkedHashMap<>();
+                    error.put("message", "Comando não suportado: " + frame.command());
+                    send("ERROR", error, new byte[0]);
+                    return false;
+                }
+            }
+
+            sendReceipt(headers);
+            return true;
+        }
+
+        private void sendReceipt(Map<String, String> headers) {
+            String receipt = headers.get("receipt");
+            if (receipt != null) {
+                Map<String, String> receiptHeaders = new LinkedHashMap<>();
+                receiptHeaders.put("receipt-id", receipt);
+                send("RECEIPT", receiptHeaders, new byte[0]);
+            }
+        }
+
+        private void unsubscribe(String id) {
+            String destination = destinationsBySubscription.remove(id);
+            if (destination == null) {
+                return;
+            }
+
+            Set<Subscription> subscribers = subscriptions.get(destination);
+            if (subscribers != null) {
+                subscribers.remove(new Subscription(this, id));
+                if (subscribers.isEmpty()) {
+                    subscriptions.remove(destination, subscribers);
+                }
+            }
+        }
+
+        synchronized void send(String command, Map<String, String> headers, byte[] body) {
+            if (socket.isClosed()) {
+                return;
+            }
+
+            try {
+                StringBuilder frame = new StringBuilder(command).append('\n');
+                headers.forEach((key, value) ->
+                        frame.append(escape(key)).append(':').append(escape(value)).append('\n'));
+                frame.append("content-length:").append(body.length).append("\n\n");
+
+                out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+                out.write(body);
+                out.write(NULL_OCTET);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            if (!connections.remove(this)) {
+                return;
+            }
+
+            for (String id : destinationsBySubscription.keySet()) {
+                unsubscribe(id);
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {}
+        }
+
+        private Frame readFrame() throws IOException {
+            String command;
+            do {
+                command = readLine();
+                if (command == null) {
+                    return null;
+                }
+            } while (command.isEmpty()); // heart-beats
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            String line;
+            while ((line = readLine()) != null && !line.isEmpty()) {
+                int separator = line.indexOf(':');
+                if (separator > 0) {
+                    // Pela especificação, a primeira ocorrência de um header prevalece
+                    headers.putIfAbsent(unescape(line.substring(0, separator)), unescape(line.substring(separator + 1)));
+                }
+            }
+            if (line == null) {
+                return null;
+            }
+
+            return new Frame(command, headers, readBody(headers.get("content-length")));
+        }
+
+        private byte[] readBody(String contentLength) throws IOException {
+            if (contentLength != null) {
+                byte[] body = in.readNBytes(Integer.parseInt(contentLength.trim()));
+                if (in.read() != NULL_OCTET) {
+                    throw new IOException("Frame STOMP sem terminador");
+                }
+                return body;
+            }
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != NULL_OCTET) {
+                if (b < 0) {
+                    throw new EOFException("Frame STOMP incompleto");
+                }
+                body.write(b);
+            }
+            return body.toByteArray();
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != LINE_FEED) {
+                if (b < 0) {
+                    return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+                }
+                line.write(b);
+            }
+
+            String value = line.toString(StandardCharsets.UTF_8);
+            return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("\r", "\\r")
+                .replace("\n", "\\n")
+                .replace(":", "\\c");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 'n' -> result.append('\n');
+                    case 'r' -> result.append('\r');
+                    case 'c' -> result.append(':');
+                    default -> result.append(next);
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
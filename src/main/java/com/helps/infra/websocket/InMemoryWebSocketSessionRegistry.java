@@ -1,27 +1,40 @@
 package com.helps.infra.websocket;
 
+import com.helps.infra.config.NodeIdentity;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementação em memória do registro de sessões WebSocket.
  * Thread-safe e adequada para uso em aplicações de pequeno a médio porte.
+ * Enxerga apenas as sessões desta instância; para várias instâncias use
+ * {@code websocket.session-registry.store=database}.
  */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "websocket.session-registry.store", havingValue = "memory", matchIfMissing = true)
 public class InMemoryWebSocketSessionRegistry implements WebSocketSessionRegistry {
 
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
     // Mapeia username -> set de sessionIds
     private final ConcurrentHashMap<String, Set<String>> userSessions = new ConcurrentHashMap<>();
     
     // Mapeia sessionId -> username (para lookup reverso)
     private final ConcurrentHashMap<String, String> sessionToUser = new ConcurrentHashMap<>();
 
+    // Mapeia ticketId -> (sessionId -> username) das salas de chat
+    private final ConcurrentHashMap<Long, Map<String, String>> roomMembers = new ConcurrentHashMap<>();
+
     @Override
     public void addSession(String username, String sessionId) {
         if (username == null || username.trim().isEmpty() || sessionId == null || sessionId.trim().isEmpty()) {
@@ -95,6 +108,49 @@ public class InMemoryWebSocketSessionRegistry implements WebSocketSessionRegistr
         return sessionToUser.get(sessionId.trim());
     }
 
+    @Override
+    public boolean isUserOnline(String username) {
+        return username != null && userSessions.containsKey(username.trim());
+    }
+
+    @Override
+    @Nullable
+    public String findNodeBySessionId(String sessionId) {
+        return findUsernameBySessionId(sessionId) != null ? nodeIdentity.getNodeId() : null;
+    }
+
+    @Override
+    public void joinRoom(String username, String sessionId, Long ticketId) {
+        if (username == null || sessionId == null || ticketId == null) {
+            return;
+        }
+
+        roomMembers.computeIfAbsent(ticketId, key -> new ConcurrentHashMap<>())
+                .put(sessionId.trim(), username.trim());
+    }
+
+    @Override
+    public void leaveRoom(String sessionId, Long ticketId) {
+        if (sessionId == null || ticketId == null) {
+            return;
+        }
+
+        roomMembers.computeIfPresent(ticketId, (ticket, members) -> {
+            members.remove(sessionId.trim());
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    @Override
+    public boolean isUserInRoom(String username, Long ticketId) {
+        if (username == null || ticketId == null) {
+            return false;
+        }
+
+        Map<String, String> members = roomMembers.get(ticketId);
+        return members != null && members.containsValue(username.trim());
+    }
+
     @Override
     public int getTotalActiveSessions() {
         return sessionToUser.size();
@@ -138,6 +194,7 @@ public class InMemoryWebSocketSessionRegistry implements WebSocketSessionRegistr
     public void clearAll() {
         userSessions.clear();
         sessionToUser.clear();
+        roomMembers.clear();
         log.warn("Todas as sessões WebSocket foram removidas do registry");
     }
 }
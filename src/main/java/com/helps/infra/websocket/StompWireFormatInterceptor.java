@@ -0,0 +1,126 @@
+package com.helps.infra.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formato de fio das mensagens STOMP entregues ao cliente. O cliente escolhe o formato no
+ * CONNECT pelo header "x-wire-format" (json ou cbor); sem o header, segue em JSON.
+ * Para sessões CBOR o corpo de cada MESSAGE vem do {@link WirePayload} do envio, que serializa
+ * o DTO em CBOR uma vez por broadcast (datas como números), e segue como frame binário
+ * (application/octet-stream, com "x-wire-format: cbor"). Mensagens sem esse payload, como as
+ * que chegam do broker externo em modo relay, seguem em JSON; por isso o modo relay e as
+ * sessões SockJS, que só transportam texto, não negociam CBOR.
+ */
+@Slf4j
+@Component
+public class StompWireFormatInterceptor implements ChannelInterceptor {
+
+    public static final String WIRE_FORMAT_HEADER = "x-wire-format";
+    public static final String FORMAT_CBOR = "cbor";
+
+    private static final String SOCKJS_ATTRIBUTE = "sockJs";
+
+    private static final String BROKER_MODE_RELAY = "relay";
+
+    @Value("${websocket.wire-format.cbor-enabled:true}")
+    private boolean cborEnabled;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+        if (accessor == null || accessor.getSessionId() == null) {
+            return message;
+        }
+
+        SimpMessageType type = accessor.getMessageType();
+        if (SimpMessageType.CONNECT.equals(type)) {
+            negotiate(accessor);
+        } else if (SimpMessageType.DISCONNECT.equals(type)) {
+            cborSessions.remove(accessor.getSessionId());
+        } else if (SimpMessageType.MESSAGE.equals(type) && accessor.getSubscriptionId() != null) {
+            // Com subscriptionId é uma entrega ao cliente; SENDs recebidos do cliente não são convertidos
+            return encode(message, accessor);
+        }
+
+        return message;
+    }
+
+    /**
+     * Marca as sessões abertas via SockJS, que não suportam frames binários.
+     */
+    public HandshakeInterceptor sockJsHandshakeInterceptor() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                           WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(SOCKJS_ATTRIBUTE, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    private void negotiate(SimpMessageHeaderAccessor accessor) {
+        String format = accessor.getFirstNativeHeader(WIRE_FORMAT_HEADER);
+        if (format == null || !FORMAT_CBOR.equalsIgnoreCase(format.trim())) {
+            return;
+        }
+
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (!cborEnabled || BROKER_MODE_RELAY.equalsIgnoreCase(brokerMode)
+                || (attributes != null && attributes.containsKey(SOCKJS_ATTRIBUTE))) {
+            log.debug("Sessão {} pediu CBOR, mas seguirá em JSON", accessor.getSessionId());
+            return;
+        }
+
+        cborSessions.add(accessor.getSessionId());
+    }
+
+    private Message<?> encode(Message<?> message, SimpMessageHeaderAccessor accessor) {
+        if (!cborSessions.contains(accessor.getSessionId())
+                || !(accessor.getHeader(WirePayload.HEADER) instanceof WirePayload payload)) {
+            return message;
+        }
+
+        byte[] cbor;
+        try {
+            cbor = payload.cbor();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao serializar mensagem em CBOR na sessão {}; enviando JSON: {}",
+                    accessor.getSessionId(), e.getMessage());
+            return message;
+        }
+
+        SimpMessageHeaderAccessor mutable = SimpMessageHeaderAccessor.wrap(message);
+        mutable.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        mutable.setNativeHeader(WIRE_FORMAT_HEADER, FORMAT_CBOR);
+        return MessageBuilder.createMessage(cbor, mutable.getMessageHeaders());
+    }
+}
@@ -0,0 +1,232 @@
+package com.helps.infra.websocket;
+
+import com.helps.domain.service.WebSocketService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Presença em memória nas salas de chat dos tickets (assinaturas de /topic/ticket/{id}).
+ * Mantém, por ticket, as sessões de cada usuário: o JOIN é enviado na primeira sessão do
+ * usuário na sala e o LEAVE na última, de modo que abas extras não geram eventos repetidos.
+ * O mapa em memória reflete apenas as sessões desta instância; cada entrada e saída de sessão
+ * também é repassada ao {@link WebSocketSessionRegistry}, que responde pela presença entre nós.
+ */
+@Slf4j
+@Component
+public class TicketPresenceTracker {
+
+    private static final Pattern TICKET_TOPIC = Pattern.compile("^/topic/ticket/(\\d+)$");
+
+    private record Member(String username, Long userId) {}
+
+    // announce: primeira ou última sessão do usuário na sala, que gera JOIN/LEAVE no tópico
+    private record Transition(Long ticketId, Member member, String sessionId, boolean announce) {}
+
+    private static final class SessionState {
+        private String username;
+        private Long userId;
+        // subscriptionId -> ticketId
+        private final Map<String, Long> subscriptions = new HashMap<>();
+    }
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private WebSocketSessionRegistry sessionRegistry;
+
+    // ticketId -> (username -> sessionIds)
+    private final ConcurrentHashMap<Long, Map<String, Set<String>>> ticketMembers = new ConcurrentHashMap<>();
+
+    // Alterado apenas sob o monitor desta instância
+    private final Map<String, SessionState> sessions = new HashMap<>();
+
+    /**
+     * Extrai o ID do ticket de um destino de sala de chat, ou null se não for um.
+     */
+    public static Long parseTicketId(String destination) {
+        if (destination == null) {
+            return null;
+        }
+
+        Matcher matcher = TICKET_TOPIC.matcher(destination);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    /**
+     * Registra a assinatura de uma sala. Se o usuário ainda não for conhecido,
+     * a presença só é contabilizada quando {@link #identify} for chamado.
+     */
+    public void subscribe(String sessionId, String subscriptionId, Long ticketId, String username, Long userId) {
+        List<Transition> joins = new ArrayList<>();
+
+        synchronized (this) {
+            SessionState state = sessions.computeIfAbsent(sessionId, key -> new SessionState());
+            bind(state, username, userId);
+            if (state.subscriptions.put(subscriptionId, ticketId) == null && state.username != null) {
+                addMember(ticketId, state, sessionId, joins);
+            }
+        }
+
+        publishJoins(joins);
+    }
+
+    /**
+     * Associa o usuário à sessão (por exemplo, em chat.addUser), contabilizando
+     * as salas assinadas antes da identificação.
+     */
+    public void identify(String sessionId, String username, Long userId) {
+        if (username == null || username.isBlank()) {
+            return;
+        }
+
+        List<Transition> joins = new ArrayList<>();
+
+        synchronized (this) {
+            SessionState state = sessions.computeIfAbsent(sessionId, key -> new SessionState());
+            boolean wasAnonymous = state.username == null;
+            bind(state, username, userId);
+            if (wasAnonymous) {
+                for (Long ticketId : Set.copyOf(state.subscriptions.values())) {
+                    addMember(ticketId, state, sessionId, joins);
+                }
+            }
+        }
+
+        publishJoins(joins);
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        List<Transition> leaves = new ArrayList<>();
+
+        synchronized (this) {
+            SessionState state = sessions.get(sessionId);
+            if (state == null) {
+                return;
+            }
+
+            Long ticketId = state.subscriptions.remove(subscriptionId);
+            if (ticketId != null && state.username != null && !state.subscriptions.containsValue(ticketId)) {
+                removeMember(ticketId, state, sessionId, leaves);
+            }
+        }
+
+        publishLeaves(leaves);
+    }
+
+    /**
+     * Remove a sessão de todas as salas. Idempotente: o evento de desconexão pode chegar mais de uma vez.
+     */
+    public void removeSession(String sessionId) {
+        List<Transition> leaves = new ArrayList<>();
+
+        synchronized (this) {
+            SessionState state = sessions.remove(sessionId);
+            if (state == null || state.username == null) {
+                return;
+            }
+
+            for (Long ticketId : Set.copyOf(state.subscriptions.values())) {
+                removeMember(ticketId, state, sessionId, leaves);
+            }
+        }
+
+        publishLeaves(leaves);
+    }
+
+    /**
+     * Indica se o usuário tem ao menos uma sessão desta instância na sala do ticket.
+     */
+    public boolean isUserInTicket(String username, Long ticketId) {
+        Map<String, Set<String>> members = ticketMembers.get(ticketId);
+        return members != null && members.containsKey(username);
+    }
+
+    public Set<String> getUsersInTicket(Long ticketId) {
+        Map<String, Set<String>> members = ticketMembers.get(ticketId);
+        return members == null ? Collections.emptySet() : Set.copyOf(members.keySet());
+    }
+
+    private void bind(SessionState state, String username, Long userId) {
+        if (state.username == null && username != null && !username.isBlank()) {
+            state.username = username;
+        }
+        if (state.userId == null && userId != null) {
+            state.userId = userId;
+        }
+    }
+
+    private void addMember(Long ticketId, SessionState state, String sessionId, List<Transition> joins) {
+        Set<String> userSessions = ticketMembers
+                .computeIfAbsent(ticketId, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(state.username, key -> ConcurrentHashMap.newKeySet());
+
+        if (userSessions.add(sessionId)) {
+            joins.add(new Transition(ticketId, new Member(state.username, state.userId), sessionId,
+                    userSessions.size() == 1));
+        }
+    }
+
+    private void removeMember(Long ticketId, SessionState state, String sessionId, List<Transition> leaves) {
+        Map<String, Set<String>> members = ticketMembers.get(ticketId);
+        if (members == null) {
+            return;
+        }
+
+        Set<String> userSessions = members.get(state.username);
+        if (userSessions == null || !userSessions.remove(sessionId)) {
+            return;
+        }
+
+        boolean last = userSessions.isEmpty();
+        if (last) {
+            members.remove(state.username);
+            if (members.isEmpty()) {
+                ticketMembers.remove(ticketId);
+            }
+        }
+        leaves.add(new Transition(ticketId, new Member(state.username, state.userId), sessionId, last));
+    }
+
+    // Os envios e o registro ficam fora do monitor para não bloquear outros eventos de sessão
+    private void publishJoins(List<Transition> joins) {
+        for (Transition join : joins) {
+            try {
+                sessionRegistry.joinRoom(join.member().username(), join.sessionId(), join.ticketId());
+            } catch (Exception e) {
+                log.warn("Falha ao registrar sessão {} na sala do ticket {}: {}", join.sessionId(), join.ticketId(), e.getMessage());
+            }
+
+            if (join.announce()) {
+                log.debug("Usuário {} entrou na sala do ticket {}", join.member().username(), join.ticketId());
+                webSocketService.notifyUserEntry(join.ticketId(), join.member().userId(), join.member().username());
+            }
+        }
+    }
+
+    private void publishLeaves(List<Transition> leaves) {
+        for (Transition leave : leaves) {
+            try {
+                sessionRegistry.leaveRoom(leave.sessionId(), leave.ticketId());
+            } catch (Exception e) {
+                log.warn("Falha ao remover sessão {} da sala do ticket {}: {}", leave.sessionId(), leave.ticketId(), e.getMessage());
+            }
+
+            if (leave.announce()) {
+                log.debug("Usuário {} saiu da sala do ticket {}", leave.member().username(), leave.ticketId());
+                webSocketService.notifyUserExit(leave.ticketId(), leave.member().userId(), leave.member().username());
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.helps.infra.websocket;
 
-import com.helps.domain.service.WebSocketService;
+import com.helps.infra.security.StompAuthChannelInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,32 +9,80 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
+import java.security.Principal;
+
+/**
+ * Mantém o registro de sessões e a presença nas salas de tickets a partir
+ * dos eventos de ciclo de vida das sessões STOMP.
+ */
 @Component
 public class WebSocketEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
     @Autowired
-    private WebSocketService webSocketService;
+    private WebSocketSessionRegistry sessionRegistry;
+
+    @Autowired
+    private TicketPresenceTracker presenceTracker;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
-        logger.debug("Recebida nova conexão WebSocket");
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        Principal user = event.getUser();
+
+        if (user != null && sessionId != null) {
+            sessionRegistry.addSession(user.getName(), sessionId);
+            logger.debug("Sessão WebSocket conectada: user={} session={}", user.getName(), sessionId);
+        } else {
+            logger.debug("Recebida nova conexão WebSocket sem usuário autenticado: session={}", sessionId);
+        }
     }
 
     @EventListener
-    public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
+    public void handleWebSocketSubscribeListener(SessionSubscribeEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long ticketId = TicketPresenceTracker.parseTicketId(headerAccessor.getDestination());
+        String sessionId = headerAccessor.getSessionId();
+        String subscriptionId = headerAccessor.getSubscriptionId();
 
-        String username = (String) headerAccessor.getSessionAttributes().get("username");
-        Long chamadoId = (Long) headerAccessor.getSessionAttributes().get("chamadoId");
-        Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
+        if (ticketId == null || sessionId == null || subscriptionId == null) {
+            return;
+        }
 
-        if(username != null && chamadoId != null) {
-            logger.debug("Usuário desconectado: {}", username);
+        // Sessões anônimas podem assinar o tópico, mas não contam como presença na sala
+        Principal user = event.getUser();
+        presenceTracker.subscribe(sessionId, subscriptionId, ticketId,
+                user != null ? user.getName() : null, StompAuthChannelInterceptor.resolveUserId(user));
+    }
 
-            webSocketService.notifyUserExit(chamadoId, userId, username);
+    @EventListener
+    public void handleWebSocketUnsubscribeListener(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        String sessionId = headerAccessor.getSessionId();
+        String subscriptionId = headerAccessor.getSubscriptionId();
+
+        if (sessionId != null && subscriptionId != null) {
+            presenceTracker.unsubscribe(sessionId, subscriptionId);
         }
     }
-}
\ No newline at end of file
+
+    @EventListener
+    public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
+        String sessionId = event.getSessionId();
+        String username = event.getUser() != null ? event.getUser().getName() : null;
+        if (username == null) {
+            username = sessionRegistry.findUsernameBySessionId(sessionId);
+        }
+
+        if (username != null) {
+            sessionRegistry.removeSession(username, sessionId);
+            logger.debug("Usuário desconectado: user={} session={}", username, sessionId);
+        }
+
+        presenceTracker.removeSession(sessionId);
+    }
+}
@@ -65,4 +65,47 @@ public interface WebSocketSessionRegistry {
      * @return Número de usuários conectados
      */
     int getTotalConnectedUsers();
+
+    /**
+     * Verifica se o usuário tem alguma sessão ativa, em qualquer instância.
+     *
+     * @param username Nome do usuário
+     * @return true se houver ao menos uma sessão ativa
+     */
+    boolean isUserOnline(String username);
+
+    /**
+     * Encontra a instância (nó) que mantém a sessão.
+     *
+     * @param sessionId ID da sessão
+     * @return ID do nó ou null se a sessão não estiver ativa
+     */
+    @Nullable
+    String findNodeBySessionId(String sessionId);
+
+    /**
+     * Registra a sessão na sala de chat do ticket.
+     *
+     * @param username  Nome do usuário
+     * @param sessionId ID da sessão
+     * @param ticketId  ID do ticket
+     */
+    void joinRoom(String username, String sessionId, Long ticketId);
+
+    /**
+     * Remove a sessão da sala de chat do ticket.
+     *
+     * @param sessionId ID da sessão
+     * @param ticketId  ID do ticket
+     */
+    void leaveRoom(String sessionId, Long ticketId);
+
+    /**
+     * Verifica se o usuário está na sala de chat do ticket, em qualquer instância.
+     *
+     * @param username Nome do usuário
+     * @param ticketId ID do ticket
+     * @return true se ao menos uma sessão ativa do usuário estiver na sala
+     */
+    boolean isUserInRoom(String username, Long ticketId);
 }
@@ -0,0 +1,57 @@
+package com.helps.infra.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.messaging.converter.MessageConversionException;
+
+/**
+ * Payload de um envio STOMP, serializado no máximo uma vez por formato de fio.
+ * O JSON é gerado no envio e vai no corpo da mensagem; o CBOR é gerado direto do DTO na
+ * primeira entrega a uma sessão que negociou o formato e reaproveitado nas demais.
+ * Viaja como header em memória, então só existe com o broker simples.
+ */
+public final class WirePayload {
+
+    public static final String HEADER = "helps.wirePayload";
+
+    private final Object value;
+    private final byte[] json;
+    private final ObjectWriter cborWriter;
+    private volatile byte[] cbor;
+
+    private WirePayload(Object value, byte[] json, ObjectWriter cborWriter) {
+        this.value = value;
+        this.json = json;
+        this.cborWriter = cborWriter;
+    }
+
+    public static WirePayload of(Object value, ObjectWriter jsonWriter, ObjectWriter cborWriter) {
+        return new WirePayload(value, write(jsonWriter, value), cborWriter);
+    }
+
+    public byte[] json() {
+        return json;
+    }
+
+    public byte[] cbor() {
+        byte[] encoded = cbor;
+        if (encoded == null) {
+            synchronized (this) {
+                encoded = cbor;
+                if (encoded == null) {
+                    encoded = write(cborWriter, value);
+                    cbor = encoded;
+                }
+            }
+        }
+        return encoded;
+    }
+
+    private static byte[] write(ObjectWriter writer, Object value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new MessageConversionException("Failed to serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.ActivityRollupBackfill;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class ActivityRollupBackfillRepositoryTest {
+
+    private static final Long ID = ActivityRollupBackfill.SINGLETON_ID;
+
+    @Autowired
+    private ActivityRollupBackfillRepository backfillRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void keepsASingleMarker() {
+        LocalDateTime now = LocalDateTime.now();
+        backfillRepository.insertMarker(ID, 100L, now, null);
+
+        assertThatThrownBy(() -> backfillRepository.insertMarker(ID, 250L, now, null))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(backfillRepository.findById(ID)).get()
+                .extracting(ActivityRollupBackfill::getCutoffLogId).isEqualTo(100L);
+    }
+
+    @Test
+    void onlyOneNodeClaimsUntilTheClaimGoesStale() {
+        LocalDateTime now = LocalDateTime.now();
+        backfillRepository.insertMarker(ID, 100L, now, null);
+
+        assertThat(backfillRepository.claim(ID, "node-a", now, now.minusMinutes(10))).isEqualTo(1);
+        assertThat(backfillRepository.claim(ID, "node-b", now, now.minusMinutes(10))).isZero();
+
+        LocalDateTime later = now.plusMinutes(11);
+        assertThat(backfillRepository.claim(ID, "node-b", later, later.minusMinutes(10))).isEqualTo(1);
+        assertThat(backfillRepository.complete(ID, "node-a", later)).isZero();
+        assertThat(backfillRepository.complete(ID, "node-b", later)).isEqualTo(1);
+
+        entityManager.clear();
+        assertThat(backfillRepository.claim(ID, "node-c", later.plusHours(1), later)).isZero();
+    }
+
+    @Test
+    void markerCreatedOverExistingRollupIsAlreadyComplete() {
+        LocalDateTime now = LocalDateTime.now();
+        backfillRepository.insertMarker(ID, 100L, now, now);
+
+        assertThat(backfillRepository.claim(ID, "node-a", now, now.minusMinutes(10))).isZero();
+    }
+}
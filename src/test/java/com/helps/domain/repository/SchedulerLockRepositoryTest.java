@@ -0,0 +1,34 @@
+package com.helps.domain.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class SchedulerLockRepositoryTest {
+
+    private static final String LOCK = "notification-retention";
+
+    @Autowired
+    private SchedulerLockRepository lockRepository;
+
+    @Test
+    void onlyOneNodeHoldsTheLockUntilItExpiresOrIsReleased() {
+        LocalDateTime now = LocalDateTime.now();
+        lockRepository.insertLock(LOCK, now.plusMinutes(30), "node-a");
+
+        assertThat(lockRepository.acquire(LOCK, "node-b", now, now.plusMinutes(30))).isZero();
+
+        assertThat(lockRepository.release(LOCK, "node-b", now)).isZero();
+        assertThat(lockRepository.release(LOCK, "node-a", now)).isEqualTo(1);
+        LocalDateTime nextRun = now.plusSeconds(1);
+        assertThat(lockRepository.acquire(LOCK, "node-b", nextRun, nextRun.plusMinutes(30))).isEqualTo(1);
+
+        LocalDateTime expired = now.plusMinutes(31);
+        assertThat(lockRepository.acquire(LOCK, "node-c", expired, expired.plusMinutes(30))).isEqualTo(1);
+    }
+}
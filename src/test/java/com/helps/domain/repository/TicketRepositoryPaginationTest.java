@@ -0,0 +1,107 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.Role;
+import com.helps.domain.model.Ticket;
+import com.helps.domain.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TicketRepositoryPaginationTest {
+
+    private static final int TICKETS = 60;
+    private static final int USERS = 40;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setName("USUARIO");
+        entityManager.persist(role);
+
+        User[] users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPassword("secret");
+            user.setName("Usuário " + i);
+            user.setRoles(Set.of(role));
+            users[i] = entityManager.persist(user);
+        }
+
+        // Cada ticket com solicitante e helper distintos, para que a página traga vários usuários
+        for (int i = 0; i < TICKETS; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setTitle("Ticket " + i);
+            ticket.setDescription("Descrição " + i);
+            ticket.setStatus("ABERTO");
+            ticket.setCategory("SUPORTE");
+            ticket.setOpeningDate(LocalDateTime.now().minusMinutes(i));
+            ticket.setUser(users[i % USERS]);
+            ticket.setHelper(users[(i + 1) % USERS]);
+            entityManager.persist(ticket);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void paginatedListingRunsConstantQueriesPerPage() {
+        long smallPage = statementsToLoad(0, 5);
+        long largePage = statementsToLoad(0, 20);
+        long laterPage = statementsToLoad(2, 20);
+
+        // Página, COUNT e um lote de papéis, independentemente de quantos tickets e usuários
+        assertThat(smallPage).isEqualTo(3);
+        assertThat(largePage).isEqualTo(smallPage);
+        assertThat(laterPage).isEqualTo(smallPage);
+    }
+
+    private long statementsToLoad(int page, int size) {
+        entityManager.clear();
+        statistics.clear();
+
+        Specification<Ticket> spec = (root, query, cb) -> cb.equal(root.get("status"), "ABERTO");
+        Page<Ticket> tickets = ticketRepository.findAll(spec,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "openingDate")));
+
+        // Mesmos acessos da conversão para DTO
+        tickets.forEach(ticket -> {
+            assertThat(ticket.getUser().getName()).isNotNull();
+            assertThat(ticket.getHelper().getName()).isNotNull();
+            assertThat(ticket.getUser().getRoles()).hasSize(1);
+            assertThat(ticket.getHelper().getRoles()).hasSize(1);
+        });
+        assertThat(tickets.getContent()).hasSize(size);
+
+        return statistics.getPrepareStatementCount();
+    }
+}
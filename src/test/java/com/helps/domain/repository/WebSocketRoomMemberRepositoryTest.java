@@ -0,0 +1,68 @@
+package com.helps.domain.repository;
+
+import com.helps.domain.model.WebSocketRoomMember;
+import com.helps.domain.model.WebSocketSessionEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class WebSocketRoomMemberRepositoryTest {
+
+    @Autowired
+    private WebSocketRoomMemberRepository roomRepository;
+
+    @Autowired
+    private WebSocketSessionEntryRepository sessionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void seesRoomMembersOfAnyNodeWhileTheSessionIsAlive() {
+        LocalDateTime now = LocalDateTime.now();
+        session("s-a", "maria", "node-a", now);
+        member("s-a", 10L, "maria", "node-a");
+
+        LocalDateTime aliveSince = now.minusSeconds(45);
+        assertThat(roomRepository.existsAlive("maria", 10L, aliveSince)).isTrue();
+        assertThat(roomRepository.existsAlive("maria", 11L, aliveSince)).isFalse();
+        assertThat(roomRepository.existsAlive("joao", 10L, aliveSince)).isFalse();
+    }
+
+    @Test
+    void ignoresMembersWhoseSessionLeaseExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        session("s-b", "maria", "node-b", now.minusMinutes(5));
+        member("s-b", 10L, "maria", "node-b");
+
+        assertThat(roomRepository.existsAlive("maria", 10L, now.minusSeconds(45))).isFalse();
+
+        sessionRepository.deleteExpired(now.minusSeconds(45));
+        assertThat(roomRepository.deleteOrphans()).isEqualTo(1);
+    }
+
+    private void session(String sessionId, String username, String nodeId, LocalDateTime heartbeat) {
+        WebSocketSessionEntry entry = new WebSocketSessionEntry();
+        entry.setSessionId(sessionId);
+        entry.setUsername(username);
+        entry.setNodeId(nodeId);
+        entry.setConnectedAt(heartbeat);
+        entry.setLastHeartbeat(heartbeat);
+        entityManager.persist(entry);
+    }
+
+    private void member(String sessionId, Long ticketId, String username, String nodeId) {
+        WebSocketRoomMember member = new WebSocketRoomMember();
+        member.setSessionId(sessionId);
+        member.setTicketId(ticketId);
+        member.setUsername(username);
+        member.setNodeId(nodeId);
+        entityManager.persistAndFlush(member);
+    }
+}
@@ -0,0 +1,86 @@
+package com.helps.domain.service;
+
+import com.helps.domain.model.Role;
+import com.helps.domain.model.User;
+import com.helps.domain.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(UserContextService.class)
+class UserContextServiceTest {
+
+    @Autowired
+    private UserContextService userContextService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setName("HELPER");
+        entityManager.persist(role);
+
+        User user = new User();
+        user.setUsername("maria");
+        user.setName("Maria");
+        user.setPassword("hash");
+        user.setEnabled(true);
+        user.setRoles(new HashSet<>(Set.of(role)));
+        userId = entityManager.persistAndFlush(user).getId();
+        entityManager.clear();
+        // O cache de principal é do bean e sobrevive ao rollback de cada teste
+        userContextService.evictUser(user);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("maria", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentUserIsAManagedReferenceThatSavesWithoutLosingData() {
+        User current = userContextService.getCurrentUser();
+        assertThat(entityManager.getEntityManager().contains(current)).isTrue();
+
+        current.setName("Maria Souza");
+        userRepository.save(current);
+        entityManager.flush();
+        entityManager.clear();
+
+        User reloaded = entityManager.find(User.class, userId);
+        assertThat(reloaded.getName()).isEqualTo("Maria Souza");
+        assertThat(reloaded.getPassword()).isEqualTo("hash");
+        assertThat(reloaded.getRoles()).extracting(Role::getName).containsExactly("HELPER");
+    }
+
+    @Test
+    void readsPrincipalFieldsFromTheSnapshot() {
+        UserContextService.PrincipalSnapshot principal = userContextService.getCurrentPrincipal();
+
+        assertThat(principal.id()).isEqualTo(userId);
+        assertThat(principal.displayName()).isEqualTo("Maria");
+        assertThat(userContextService.hasAnyRole("ADMIN", "HELPER")).isTrue();
+        assertThat(userContextService.getCurrentUsername()).isEqualTo("maria");
+    }
+}
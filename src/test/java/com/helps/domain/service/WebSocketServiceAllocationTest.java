@@ -0,0 +1,103 @@
+package com.helps.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.helps.domain.model.Ticket;
+import com.helps.domain.model.User;
+import com.helps.dto.ChatMessageDto;
+import com.helps.dto.NotificationDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mede alocação e vazão de notifyTicketStatus contra o envio anterior, que convertia o DTO
+ * em cada destino (convertAndSend/convertAndSendToUser). O canal descarta as mensagens, então
+ * o custo medido é só serialização e montagem das mensagens.
+ */
+class WebSocketServiceAllocationTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private SimpMessagingTemplate messagingTemplate;
+    private WebSocketService webSocketService;
+    private Ticket ticket;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+
+        MessageChannel discard = (message, timeout) -> true;
+        messagingTemplate = new SimpMessagingTemplate(discard);
+        messagingTemplate.setMessageConverter(converter);
+        webSocketService = new WebSocketService(messagingTemplate, objectMapper);
+
+        ticket = new Ticket();
+        ticket.setId(42L);
+        ticket.setUser(user("requester"));
+        ticket.setHelper(user("helper"));
+    }
+
+    @Test
+    void sharedPayloadAllocatesLessThanPerDestinationConversion() {
+        Result perDestination = measure(() -> notifyPerDestination(ticket, "Em atendimento"));
+        Result shared = measure(() -> webSocketService.notifyTicketStatus(ticket, "Em atendimento"));
+
+        System.out.printf("notifyTicketStatus (3 destinos) por destino: %d B/op, %.0f ops/s%n",
+                perDestination.bytesPerOp(), perDestination.opsPerSecond());
+        System.out.printf("notifyTicketStatus (3 destinos) compartilhado: %d B/op, %.0f ops/s%n",
+                shared.bytesPerOp(), shared.opsPerSecond());
+
+        assertThat(shared.bytesPerOp()).isLessThan(perDestination.bytesPerOp());
+    }
+
+    private record Result(long bytesPerOp, double opsPerSecond) {}
+
+    private Result measure(Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        return new Result(bytes / ITERATIONS, ITERATIONS / (elapsed / 1_000_000_000.0));
+    }
+
+    // Envio anterior: cada destino passa pelo conversor e serializa o próprio DTO
+    private void notifyPerDestination(Ticket ticket, String event) {
+        messagingTemplate.convertAndSend("/topic/ticket/" + ticket.getId(), new ChatMessageDto(
+                "STATUS", ticket.getId(), null, "System", event, LocalDateTime.now(), null, null));
+
+        for (User recipient : new User[]{ticket.getUser(), ticket.getHelper()}) {
+            messagingTemplate.convertAndSendToUser(recipient.getUsername(), "/queue/notifications", new NotificationDto(
+                    null, "Ticket #" + ticket.getId() + ": " + event, "TICKET_STATUS", false,
+                    ticket.getId(), LocalDateTime.now()));
+        }
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,100 @@
+package com.helps.domain.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.helps.domain.model.Ticket;
+import com.helps.domain.model.User;
+import com.helps.dto.NotificationDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebSocketServiceTest {
+
+    private final AtomicInteger notificationSerializations = new AtomicInteger();
+
+    private SimpMessagingTemplate messagingTemplate;
+    private WebSocketService webSocketService;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        when(messagingTemplate.getUserDestinationPrefix()).thenReturn("/user/");
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(countingModule());
+        webSocketService = new WebSocketService(messagingTemplate, objectMapper);
+    }
+
+    @Test
+    void notifyTicketStatusSerializesNotificationOnceForAllRecipients() {
+        Ticket ticket = new Ticket();
+        ticket.setId(42L);
+        ticket.setUser(user("requester"));
+        ticket.setHelper(user("helper"));
+
+        webSocketService.notifyTicketStatus(ticket, "Em atendimento");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, times(2)).send(startsWith("/user/"), captor.capture());
+        verify(messagingTemplate).send(startsWith("/topic/ticket/"), any());
+
+        List<Message<byte[]>> sent = captor.getAllValues();
+        assertThat(notificationSerializations.get()).isEqualTo(1);
+        // Os mesmos bytes seguem para os dois destinos, sem cópia nem nova serialização
+        assertThat(sent.get(0).getPayload()).isSameAs(sent.get(1).getPayload());
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+
+    // Conta quantas vezes um NotificationDto passa pelo serializador
+    private SimpleModule countingModule() {
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                if (!NotificationDto.class.equals(beanDesc.getBeanClass())) {
+                    return serializer;
+                }
+                JsonSerializer<Object> delegate = (JsonSerializer<Object>) serializer;
+                return new JsonSerializer<Object>() {
+                    @Override
+                    public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                        notificationSerializations.incrementAndGet();
+                        delegate.serialize(value, gen, provider);
+                    }
+                };
+            }
+        });
+        return module;
+    }
+}
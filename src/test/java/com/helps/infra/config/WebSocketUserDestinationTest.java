@@ -0,0 +1,114 @@
+package com.helps.infra.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helps.domain.service.WebSocketService;
+import com.helps.dto.NotificationDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WebSocketUserDestinationTest {
+
+    private static final String USERNAME = "ws-user";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebSocketStompClient stompClient;
+
+    @AfterEach
+    void tearDown() {
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+    }
+
+    @Test
+    void deliversUserQueueNotificationToAuthenticatedSession() throws Exception {
+        StompSession session = connect(token(USERNAME));
+
+        BlockingQueue<NotificationDto> received = new LinkedBlockingQueue<>();
+        session.subscribe("/user/queue/notifications", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return NotificationDto.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((NotificationDto) payload);
+            }
+        });
+
+        // A assinatura é registrada de forma assíncrona no broker; reenvia até chegar
+        NotificationDto notification = new NotificationDto(1L, "Olá", "TEST", false, null, LocalDateTime.now());
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            webSocketService.sendNotification(notification, USERNAME);
+            assertThat(received.poll(200, TimeUnit.MILLISECONDS))
+                    .isNotNull()
+                    .extracting(NotificationDto::message)
+                    .isEqualTo("Olá");
+        });
+    }
+
+    private StompSession connect(String token) throws Exception {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        stompClient.setMessageConverter(converter);
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+
+        return stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                        connectHeaders, new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private String token(String username) {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("helps-test")
+                .subject("9999")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .claim("username", username)
+                .claim("name", username)
+                .claim("roles", List.of("USUARIO"))
+                .build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+}
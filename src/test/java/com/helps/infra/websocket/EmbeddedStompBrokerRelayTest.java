@@ -0,0 +1,150 @@
+package com.helps.infra.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helps.HelpsApplication;
+import com.helps.domain.service.WebSocketService;
+import com.helps.dto.ChatMessageDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Duas instâncias da aplicação em modo relay, ligadas ao broker embutido: um broadcast
+ * feito em uma instância chega ao cliente conectado na outra.
+ */
+class EmbeddedStompBrokerRelayTest {
+
+    private EmbeddedStompBroker broker;
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private WebSocketStompClient stompClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        int brokerPort = freePort();
+        broker = new EmbeddedStompBroker();
+        ReflectionTestUtils.setField(broker, "host", "127.0.0.1");
+        ReflectionTestUtils.setField(broker, "port", brokerPort);
+        broker.start();
+
+        nodeA = startNode("node-a", brokerPort);
+        nodeB = startNode("node-b", brokerPort);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        broker.stop();
+    }
+
+    @Test
+    void broadcastOnOneNodeReachesSubscriberOnTheOther() throws Exception {
+        ObjectMapper objectMapper = nodeB.getBean(ObjectMapper.class);
+        StompSession session = connect(nodeB, objectMapper);
+
+        BlockingQueue<ChatMessageDto> received = new LinkedBlockingQueue<>();
+        session.subscribe("/topic/ticket/77", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return ChatMessageDto.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((ChatMessageDto) payload);
+            }
+        });
+
+        ChatMessageDto message = new ChatMessageDto(
+                "CHAT", 77L, 1L, "Maria", "Olá do nó A", LocalDateTime.of(2026, 10, 18, 11, 0), 1L, 500L);
+        WebSocketService nodeAService = nodeA.getBean(WebSocketService.class);
+
+        // A assinatura chega ao broker de forma assíncrona pelo relay do nó B; reenvia até chegar
+        await().atMost(20, TimeUnit.SECONDS).untilAsserted(() -> {
+            nodeAService.sendChatMessage(message);
+            assertThat(received.poll(300, TimeUnit.MILLISECONDS)).isEqualTo(message);
+        });
+    }
+
+    private ConfigurableApplicationContext startNode(String name, int brokerPort) {
+        return new SpringApplicationBuilder(HelpsApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "--websocket.broker.mode=relay",
+                "--websocket.broker.relay.host=127.0.0.1",
+                "--websocket.broker.relay.port=" + brokerPort,
+                "--websocket.broker.embedded.enabled=false",
+                "--activity-log.writer.spill-file=" + Path.of(System.getProperty("java.io.tmpdir"), name + "-activity.spill"));
+    }
+
+    private StompSession connect(ConfigurableApplicationContext node, ObjectMapper objectMapper) throws Exception {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        stompClient.setMessageConverter(converter);
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token(node));
+
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        return stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                        connectHeaders, new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private String token(ConfigurableApplicationContext node) {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("helps-test")
+                .subject("9997")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .claim("username", "relay-user")
+                .claim("name", "relay-user")
+                .claim("roles", List.of("USUARIO"))
+                .build();
+        return node.getBean(JwtEncoder.class).encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            return probe.getLocalPort();
+        }
+    }
+}
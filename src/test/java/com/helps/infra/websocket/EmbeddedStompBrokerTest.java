@@ -0,0 +1,201 @@
+package com.helps.infra.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddedStompBrokerTest {
+
+    private record Frame(String command, Map<String, String> headers, byte[] body) {}
+
+    private EmbeddedStompBroker broker;
+    private int port;
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+
+        broker = new EmbeddedStompBroker();
+        ReflectionTestUtils.setField(broker, "host", "127.0.0.1");
+        ReflectionTestUtils.setField(broker, "port", port);
+        broker.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        broker.stop();
+    }
+
+    @Test
+    void fansOutSendToSubscribersOfOtherConnections() throws IOException {
+        Socket subscriber = connect();
+        subscribe(subscriber, "sub-1", "/topic/ticket/1");
+
+        Socket publisher = connect();
+        write(publisher, "SEND\ndestination:/topic/ticket/1\ncontent-type:application/json\n\n{\"id\":1}\0");
+
+        Frame message = read(subscriber);
+        assertThat(message.command()).isEqualTo("MESSAGE");
+        assertThat(message.headers()).containsEntry("subscription", "sub-1")
+                .containsEntry("destination", "/topic/ticket/1")
+                .containsKey("message-id");
+        assertThat(new String(message.body(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void readsFramesSplitAcrossWrites() throws Exception {
+        Socket subscriber = connect();
+        subscribe(subscriber, "sub-1", "/topic/split");
+
+        Socket publisher = connect();
+        OutputStream out = publisher.getOutputStream();
+        for (String part : new String[]{"SE", "ND\ndestina", "tion:/topic/split\n", "\nola", "\0"}) {
+            out.write(part.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            Thread.sleep(20);
+        }
+
+        assertThat(new String(read(subscriber).body(), StandardCharsets.UTF_8)).isEqualTo("ola");
+    }
+
+    @Test
+    void honoursContentLengthForBodiesWithNullOctets() throws IOException {
+        Socket subscriber = connect();
+        subscribe(subscriber, "sub-1", "/topic/binary");
+
+        byte[] body = {1, 0, 2, 0, 3};
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write("SEND\ndestination:/topic/binary\ncontent-length:5\n\n".getBytes(StandardCharsets.UTF_8));
+        frame.write(body);
+        frame.write(0);
+
+        Socket publisher = connect();
+        publisher.getOutputStream().write(frame.toByteArray());
+        publisher.getOutputStream().flush();
+
+        Frame message = read(subscriber);
+        assertThat(message.headers()).containsEntry("content-length", "5");
+        assertThat(message.body()).isEqualTo(body);
+    }
+
+    @Test
+    void ignoresHeartBeatsBetweenFrames() throws IOException {
+        Socket socket = new Socket("127.0.0.1", port);
+        sockets.add(socket);
+        write(socket, "\n\r\n\nCONNECT\naccept-version:1.2\nheart-beat:1000,1000\n\n\0\n\n");
+        assertThat(read(socket).command()).isEqualTo("CONNECTED");
+
+        write(socket, "\n\nSUBSCRIBE\nid:s\ndestination:/topic/hb\nreceipt:r-1\n\n\0\n");
+        Frame receipt = read(socket);
+        assertThat(receipt.command()).isEqualTo("RECEIPT");
+        assertThat(receipt.headers()).containsEntry("receipt-id", "r-1");
+    }
+
+    @Test
+    void stopsDeliveringAfterUnsubscribe() throws IOException {
+        Socket subscriber = connect();
+        subscribe(subscriber, "sub-1", "/topic/a");
+        subscribe(subscriber, "sub-2", "/topic/b");
+        write(subscriber, "UNSUBSCRIBE\nid:sub-1\nreceipt:u\n\n\0");
+        assertThat(read(subscriber).command()).isEqualTo("RECEIPT");
+
+        Socket publisher = connect();
+        write(publisher, "SEND\ndestination:/topic/a\n\nfirst\0");
+        write(publisher, "SEND\ndestination:/topic/b\n\nsecond\0");
+
+        // Só a mensagem de /topic/b chega; a de /topic/a teria vindo antes
+        Frame message = read(subscriber);
+        assertThat(message.headers()).containsEntry("subscription", "sub-2");
+        assertThat(new String(message.body(), StandardCharsets.UTF_8)).isEqualTo("second");
+    }
+
+    @Test
+    void unescapesHeaderValues() throws IOException {
+        Socket subscriber = connect();
+        subscribe(subscriber, "sub-1", "/topic/escaped");
+
+        Socket publisher = connect();
+        write(publisher, "SEND\ndestination:/topic/escaped\nx-note:a\\cb\\nc\n\nx\0");
+
+        assertThat(read(subscriber).headers()).containsEntry("x-note", "a:b\nc");
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", port);
+        socket.setSoTimeout(5000);
+        sockets.add(socket);
+        write(socket, "CONNECT\naccept-version:1.2\nhost:localhost\n\n\0");
+        assertThat(read(socket).command()).isEqualTo("CONNECTED");
+        return socket;
+    }
+
+    // Com receipt, a assinatura já está registrada quando a resposta chega
+    private void subscribe(Socket socket, String id, String destination) throws IOException {
+        write(socket, "SUBSCRIBE\nid:" + id + "\ndestination:" + destination + "\nreceipt:" + id + "\n\n\0");
+        Frame receipt = read(socket);
+        assertThat(receipt.command()).isEqualTo("RECEIPT");
+    }
+
+    private void write(Socket socket, String frame) throws IOException {
+        socket.getOutputStream().write(frame.getBytes(StandardCharsets.UTF_8));
+        socket.getOutputStream().flush();
+    }
+
+    private Frame read(Socket socket) throws IOException {
+        socket.setSoTimeout(5000);
+        InputStream in = socket.getInputStream();
+
+        String command;
+        do {
+            command = readLine(in);
+        } while (command.isEmpty());
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int separator = line.indexOf(':');
+            headers.putIfAbsent(line.substring(0, separator), unescape(line.substring(separator + 1)));
+        }
+
+        byte[] body = in.readNBytes(Integer.parseInt(headers.get("content-length")));
+        assertThat(in.read()).isZero();
+        return new Frame(command, headers, body);
+    }
+
+    private String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Conexão encerrada pelo broker");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private String unescape(String value) {
+        return value.replace("\\n", "\n").replace("\\c", ":").replace("\\\\", "\\");
+    }
+}
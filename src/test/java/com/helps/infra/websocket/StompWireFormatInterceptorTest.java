@@ -0,0 +1,140 @@
+package com.helps.infra.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.helps.dto.ChatMessageDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class StompWireFormatInterceptorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    private final ChatMessageDto chatMessage = new ChatMessageDto(
+            "CHAT", 7L, 3L, "Maria", "Olá", LocalDateTime.of(2026, 10, 18, 10, 30, 15), 12L, 99L);
+
+    private StompWireFormatInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new StompWireFormatInterceptor();
+        ReflectionTestUtils.setField(interceptor, "cborEnabled", true);
+        ReflectionTestUtils.setField(interceptor, "brokerMode", "simple");
+    }
+
+    @Test
+    void deliversCborToSessionsThatNegotiatedIt() throws Exception {
+        connect("s1", "cbor", new HashMap<>());
+
+        Message<?> delivered = interceptor.preSend(delivery("s1", payload()), channel);
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(delivered);
+        assertThat(accessor.getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        assertThat(accessor.getFirstNativeHeader(StompWireFormatInterceptor.WIRE_FORMAT_HEADER))
+                .isEqualTo(StompWireFormatInterceptor.FORMAT_CBOR);
+        assertThat(cborMapper.readValue((byte[]) delivered.getPayload(), ChatMessageDto.class)).isEqualTo(chatMessage);
+    }
+
+    @Test
+    void keepsJsonWithoutNegotiation() throws Exception {
+        connect("s1", null, new HashMap<>());
+
+        WirePayload payload = payload();
+        Message<?> delivered = interceptor.preSend(delivery("s1", payload), channel);
+
+        assertThat(delivered.getPayload()).isSameAs(payload.json());
+        assertThat(objectMapper.readValue((byte[]) delivered.getPayload(), ChatMessageDto.class)).isEqualTo(chatMessage);
+    }
+
+    @Test
+    void keepsJsonForSockJsSessions() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("sockJs", Boolean.TRUE);
+        connect("s1", "cbor", attributes);
+
+        WirePayload payload = payload();
+        assertThat(interceptor.preSend(delivery("s1", payload), channel).getPayload()).isSameAs(payload.json());
+    }
+
+    @Test
+    void keepsJsonInRelayMode() {
+        ReflectionTestUtils.setField(interceptor, "brokerMode", "relay");
+        connect("s1", "cbor", new HashMap<>());
+
+        WirePayload payload = payload();
+        assertThat(interceptor.preSend(delivery("s1", payload), channel).getPayload()).isSameAs(payload.json());
+    }
+
+    @Test
+    void encodesCborOnceForAllSubscribers() {
+        connect("s1", "cbor", new HashMap<>());
+        connect("s2", "CBOR", new HashMap<>());
+
+        WirePayload payload = payload();
+        Object first = interceptor.preSend(delivery("s1", payload), channel).getPayload();
+        Object second = interceptor.preSend(delivery("s2", payload), channel).getPayload();
+
+        assertThat(first).isSameAs(second);
+    }
+
+    @Test
+    void forgetsNegotiationOnDisconnect() {
+        connect("s1", "cbor", new HashMap<>());
+
+        StompHeaderAccessor disconnect = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        disconnect.setSessionId("s1");
+        disconnect.setLeaveMutable(true);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()), channel);
+
+        WirePayload payload = payload();
+        assertThat(interceptor.preSend(delivery("s1", payload), channel).getPayload()).isSameAs(payload.json());
+    }
+
+    private void connect(String sessionId, String format, Map<String, Object> attributes) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setSessionAttributes(attributes);
+        if (format != null) {
+            accessor.setNativeHeader(StompWireFormatInterceptor.WIRE_FORMAT_HEADER, format);
+        }
+        accessor.setLeaveMutable(true);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+    }
+
+    private Message<byte[]> delivery(String sessionId, WirePayload payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination("/topic/ticket/7");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(WirePayload.HEADER, payload);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload.json(), accessor.getMessageHeaders());
+    }
+
+    private WirePayload payload() {
+        return WirePayload.of(chatMessage,
+                objectMapper.writer().without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS),
+                cborMapper.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+}
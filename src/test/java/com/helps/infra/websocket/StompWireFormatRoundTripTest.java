@@ -0,0 +1,118 @@
+package com.helps.infra.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.helps.domain.service.WebSocketService;
+import com.helps.dto.ChatMessageDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StompWireFormatRoundTripTest {
+
+    private record Frame(StompHeaders headers, byte[] body) {}
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebSocketStompClient stompClient;
+
+    @AfterEach
+    void tearDown() {
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+    }
+
+    @Test
+    void deliversBroadcastAsCborToNegotiatedSession() throws Exception {
+        StompSession session = connect(StompWireFormatInterceptor.FORMAT_CBOR);
+
+        BlockingQueue<Frame> received = new LinkedBlockingQueue<>();
+        session.subscribe("/topic/ticket/55", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add(new Frame(headers, (byte[]) payload));
+            }
+        });
+
+        ChatMessageDto message = new ChatMessageDto(
+                "CHAT", 55L, 1L, "Maria", "Olá", LocalDateTime.of(2026, 10, 18, 10, 30, 15), 3L, 120L);
+
+        // A assinatura é registrada de forma assíncrona no broker; reenvia até chegar
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            webSocketService.sendChatMessage(message);
+            Frame frame = received.poll(200, TimeUnit.MILLISECONDS);
+            assertThat(frame).isNotNull();
+            assertThat(frame.headers().getFirst(StompWireFormatInterceptor.WIRE_FORMAT_HEADER))
+                    .isEqualTo(StompWireFormatInterceptor.FORMAT_CBOR);
+            assertThat(objectMapper.copyWith(new CBORFactory()).readValue(frame.body(), ChatMessageDto.class))
+                    .isEqualTo(message);
+        });
+    }
+
+    private StompSession connect(String format) throws Exception {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new ByteArrayMessageConverter());
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token());
+        connectHeaders.add(StompWireFormatInterceptor.WIRE_FORMAT_HEADER, format);
+
+        return stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                        connectHeaders, new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private String token() {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("helps-test")
+                .subject("9998")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .claim("username", "cbor-user")
+                .claim("name", "cbor-user")
+                .claim("roles", List.of("USUARIO"))
+                .build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+}